@@ -0,0 +1,24 @@
+package de.amehlen.obms.benchmark;
+
+import de.amehlen.obms.OnlineBankingManagementSystemApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Starts the application against the embedded database of the test profile for benchmarks that
+ * need the real service and repository stack.
+ */
+final class BenchmarkApplication {
+
+  private BenchmarkApplication() {
+  }
+
+  static ConfigurableApplicationContext start(String... properties) {
+    return new SpringApplicationBuilder(OnlineBankingManagementSystemApplication.class)
+        .profiles("test")
+        .properties("spring.main.banner-mode=off", "logging.level.root=warn")
+        .properties(properties)
+        .run();
+  }
+
+}
@@ -0,0 +1,83 @@
+package de.amehlen.obms.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.amehlen.obms.exception.GlobalExceptionHandler;
+import de.amehlen.obms.exception.UserAlreadyExistException;
+import de.amehlen.obms.exception.UserNotFoundException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Measures the error path of a request for a missing user and of a duplicate signup: throwing
+ * the exception below a call stack of the given depth, as Spring MVC and the service proxies
+ * put in front of the service, turning it into an error response and serializing the body.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErrorPathBenchmark {
+
+  @Param({"20", "120"})
+  private int stackDepth;
+
+  private ObjectMapper objectMapper;
+  private GlobalExceptionHandler globalExceptionHandler;
+  private long id;
+
+  @Setup
+  public void setUp() {
+    objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    globalExceptionHandler = new GlobalExceptionHandler();
+  }
+
+  @Benchmark
+  public byte[] userNotFound() throws JsonProcessingException {
+    try {
+      throwBelow(stackDepth, true);
+      throw new IllegalStateException();
+    } catch (UserNotFoundException exception) {
+      return objectMapper.writeValueAsBytes(
+          globalExceptionHandler.handleUserNotFoundException(exception).getBody());
+    }
+  }
+
+  @Benchmark
+  public byte[] userAlreadyExist() throws JsonProcessingException {
+    try {
+      throwBelow(stackDepth, false);
+      throw new IllegalStateException();
+    } catch (UserAlreadyExistException exception) {
+      return objectMapper.writeValueAsBytes(
+          globalExceptionHandler.handleUserAlreadyExistException(exception).getBody());
+    }
+  }
+
+  private void throwBelow(int depth, boolean notFound) {
+    if (depth > 0) {
+      throwBelow(depth - 1, notFound);
+      return;
+    }
+    long userId = ++id;
+    if (notFound) {
+      throw new UserNotFoundException("User with id " + userId + " not found.");
+    }
+    throw new UserAlreadyExistException("User with email max" + userId + "@mustermann.de already"
+        + " exist.");
+  }
+
+}
@@ -0,0 +1,28 @@
+package de.amehlen.obms.benchmark;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the statements Hibernate prepares to fetch the next value of a database sequence. Each
+ * one is a round trip to the database, which the embedded H2 database answers too fast to show up
+ * in the timings of a benchmark.
+ */
+public class SequenceCallCounter implements StatementInspector {
+
+  private static final AtomicLong CALLS = new AtomicLong();
+
+  static long calls() {
+    return CALLS.get();
+  }
+
+  @Override
+  public String inspect(String sql) {
+    if (sql.toLowerCase(Locale.ROOT).contains("next value for")) {
+      CALLS.incrementAndGet();
+    }
+    return sql;
+  }
+
+}
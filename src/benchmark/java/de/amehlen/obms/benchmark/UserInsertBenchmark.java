@@ -0,0 +1,93 @@
+package de.amehlen.obms.benchmark;
+
+import de.amehlen.obms.model.User;
+import de.amehlen.obms.repository.UserRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Measures user inserts per second through {@link UserRepository#saveAll} against the embedded
+ * database of the test profile. The {@code sequenceCalls} and {@code inserts} counters give the
+ * sequence round trips per insert, which on a networked database cost more than the embedded one
+ * lets the throughput show.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserInsertBenchmark {
+
+  private static final int USERS_PER_INVOCATION = 100;
+
+  private ConfigurableApplicationContext context;
+  private UserRepository userRepository;
+  private long sequence;
+
+  @Setup
+  public void setUp() {
+    context = BenchmarkApplication.start("spring.jpa.properties.hibernate.session_factory"
+        + ".statement_inspector=" + SequenceCallCounter.class.getName());
+    userRepository = context.getBean(UserRepository.class);
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(USERS_PER_INVOCATION)
+  public List<User> saveAll(RoundTrips roundTrips) {
+    long sequenceCalls = SequenceCallCounter.calls();
+    List<User> users = new ArrayList<>(USERS_PER_INVOCATION);
+    for (int i = 0; i < USERS_PER_INVOCATION; i++) {
+      long number = sequence++;
+      User user = new User();
+      user.setFirstname("Max");
+      user.setLastname("Mustermann");
+      user.setEmail("max" + number + "@mustermann.de");
+      users.add(user);
+    }
+    List<User> savedUsers = userRepository.saveAll(users);
+    roundTrips.sequenceCalls += SequenceCallCounter.calls() - sequenceCalls;
+    roundTrips.inserts += USERS_PER_INVOCATION;
+    return savedUsers;
+  }
+
+  /**
+   * Sequence round trips and inserts of an iteration, reported next to the throughput.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class RoundTrips {
+
+    public long sequenceCalls;
+    public long inserts;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      sequenceCalls = 0;
+      inserts = 0;
+    }
+
+  }
+
+}
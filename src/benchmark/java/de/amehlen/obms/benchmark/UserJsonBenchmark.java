@@ -0,0 +1,90 @@
+package de.amehlen.obms.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.amehlen.obms.dto.response.UserPageResponseDTO;
+import de.amehlen.obms.dto.response.UserResponseDTO;
+import de.amehlen.obms.service.UserJsonCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Measures the JSON serialization of single users and of a default sized user page with the
+ * object mapper configuration Spring MVC uses, and writing them from the {@link UserJsonCache}.
+ * Run with {@code -prof gc} to compare the bytes allocated per response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserJsonBenchmark {
+
+  private static final int PAGE_SIZE = 50;
+
+  private ObjectMapper objectMapper;
+  private UserResponseDTO user;
+  private UserPageResponseDTO page;
+  private UserJsonCache userJsonCache;
+
+  @Setup
+  public void setUp() {
+    objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    user = user(1L);
+    List<UserResponseDTO> users = new ArrayList<>(PAGE_SIZE);
+    for (long id = 1; id <= PAGE_SIZE; id++) {
+      users.add(user(id));
+    }
+    page = UserPageResponseDTO.builder()
+        .withUsers(users)
+        .withNextCursor("NTA")
+        .build();
+    userJsonCache = new UserJsonCache(objectMapper, new SimpleMeterRegistry(), PAGE_SIZE);
+    userJsonCache.page(page);
+  }
+
+  @Benchmark
+  public byte[] serializeUser() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(user);
+  }
+
+  @Benchmark
+  public byte[] serializePage() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(page);
+  }
+
+  @Benchmark
+  public byte[] cachedUser() {
+    return userJsonCache.user(user);
+  }
+
+  @Benchmark
+  public byte[] cachedPage() {
+    return userJsonCache.page(page);
+  }
+
+  private static UserResponseDTO user(long id) {
+    return UserResponseDTO.builder()
+        .withId(id)
+        .withFirstname("Max")
+        .withLastname("Mustermann")
+        .withEmail("max" + id + "@mustermann.de")
+        .withVersion(0L)
+        .build();
+  }
+
+}
@@ -0,0 +1,77 @@
+package de.amehlen.obms.benchmark;
+
+import de.amehlen.obms.dto.request.UserRequestDTO;
+import de.amehlen.obms.dto.response.UserResponseDTO;
+import de.amehlen.obms.mapper.UserMapper;
+import de.amehlen.obms.model.User;
+import java.util.concurrent.TimeUnit;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the reflective {@link ModelMapper} the service used before with the hand-written
+ * {@link UserMapper}. {@link UserResponseDTO} has no no-argument constructor, so the ModelMapper
+ * variant maps into a pre-built instance instead of instantiating one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserMappingBenchmark {
+
+  private ModelMapper modelMapper;
+  private UserMapper userMapper;
+  private User user;
+  private UserRequestDTO userRequestDTO;
+  private UserResponseDTO userResponseDTO;
+
+  @Setup
+  public void setUp() {
+    modelMapper = new ModelMapper();
+    userMapper = new UserMapper();
+    user = new User();
+    user.setId(1L);
+    user.setFirstname("Max");
+    user.setLastname("Mustermann");
+    user.setEmail("max@mustermann.de");
+    userRequestDTO = UserRequestDTO.builder()
+        .withFirstname("Max")
+        .withLastname("Mustermann")
+        .withEmail("max@mustermann.de")
+        .build();
+    userResponseDTO = UserResponseDTO.builder().build();
+  }
+
+  @Benchmark
+  public UserResponseDTO modelMapperToResponseDTO() {
+    modelMapper.map(user, userResponseDTO);
+    return userResponseDTO;
+  }
+
+  @Benchmark
+  public UserResponseDTO userMapperToResponseDTO() {
+    return userMapper.toResponseDTO(user);
+  }
+
+  @Benchmark
+  public User modelMapperToEntity() {
+    return modelMapper.map(userRequestDTO, User.class);
+  }
+
+  @Benchmark
+  public User userMapperToEntity() {
+    return userMapper.toEntity(userRequestDTO);
+  }
+
+}
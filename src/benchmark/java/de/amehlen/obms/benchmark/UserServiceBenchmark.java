@@ -0,0 +1,108 @@
+package de.amehlen.obms.benchmark;
+
+import de.amehlen.obms.dto.request.UserRequestDTO;
+import de.amehlen.obms.dto.response.UserPageResponseDTO;
+import de.amehlen.obms.dto.response.UserResponseDTO;
+import de.amehlen.obms.model.User;
+import de.amehlen.obms.repository.UserRepository;
+import de.amehlen.obms.service.UserService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Measures the {@link UserService} CRUD methods against the embedded database of the test
+ * profile, with and without the user cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserServiceBenchmark {
+
+  private static final int SEEDED_USERS = 10_000;
+
+  @Param({"caffeine", "none"})
+  public String cacheType;
+
+  private ConfigurableApplicationContext context;
+  private UserService userService;
+  private long firstId;
+  private long sequence;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = BenchmarkApplication.start("spring.cache.type=" + cacheType);
+    userService = context.getBean(UserService.class);
+    UserRepository userRepository = context.getBean(UserRepository.class);
+    List<User> users = new ArrayList<>(SEEDED_USERS);
+    for (int i = 0; i < SEEDED_USERS; i++) {
+      User user = new User();
+      user.setFirstname("Max");
+      user.setLastname("Mustermann");
+      user.setEmail("seed" + i + "@mustermann.de");
+      users.add(user);
+    }
+    firstId = userRepository.saveAll(users).get(0).getId();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public UserResponseDTO getUserById() {
+    return userService.getUserById(randomSeededId());
+  }
+
+  @Benchmark
+  public UserPageResponseDTO getAllUsersFirstPage() {
+    return userService.getAllUsers(null, null);
+  }
+
+  @Benchmark
+  public UserResponseDTO updateUser() {
+    long id = randomSeededId();
+    return userService.updateUser(id, request("seed" + (id - firstId) + "@mustermann.de"),
+        null);
+  }
+
+  @Benchmark
+  public UserResponseDTO createAndDeleteUser() {
+    UserResponseDTO user = userService.createNewUser(
+        request("benchmark" + sequence++ + "@mustermann.de"));
+    userService.deleteUser(user.getId());
+    return user;
+  }
+
+  private long randomSeededId() {
+    return firstId + ThreadLocalRandom.current().nextInt(SEEDED_USERS);
+  }
+
+  private static UserRequestDTO request(String email) {
+    return UserRequestDTO.builder()
+        .withFirstname("Erika")
+        .withLastname("Mustermann")
+        .withEmail(email)
+        .build();
+  }
+
+}
@@ -0,0 +1,69 @@
+package de.amehlen.obms.benchmark;
+
+import de.amehlen.obms.dto.request.UserRequestDTO;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the bean validation of valid and invalid user requests.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserValidationBenchmark {
+
+  private ValidatorFactory validatorFactory;
+  private Validator validator;
+  private UserRequestDTO validRequest;
+  private UserRequestDTO invalidRequest;
+
+  @Setup
+  public void setUp() {
+    validatorFactory = Validation.buildDefaultValidatorFactory();
+    validator = validatorFactory.getValidator();
+    validRequest = UserRequestDTO.builder()
+        .withFirstname("Max")
+        .withLastname("Mustermann")
+        .withEmail("max@mustermann.de")
+        .build();
+    invalidRequest = UserRequestDTO.builder()
+        .withFirstname("")
+        .withLastname("Mustermann")
+        .withEmail("no-email")
+        .build();
+  }
+
+  @TearDown
+  public void tearDown() {
+    validatorFactory.close();
+  }
+
+  @Benchmark
+  public Set<ConstraintViolation<UserRequestDTO>> validateValidRequest() {
+    return validator.validate(validRequest);
+  }
+
+  @Benchmark
+  public Set<ConstraintViolation<UserRequestDTO>> validateInvalidRequest() {
+    return validator.validate(invalidRequest);
+  }
+
+}
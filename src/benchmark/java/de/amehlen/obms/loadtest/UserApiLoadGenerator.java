@@ -0,0 +1,241 @@
+package de.amehlen.obms.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Drives every user endpoint with a configurable read/write mix and prints throughput and latency
+ * percentiles per operation. Meant to run against the application started with the
+ * {@code loadtest} profile, which seeds users with the ids 1..n.
+ *
+ * <p>Configured with system properties: {@code base-url}, {@code threads}, {@code warmup-seconds},
+ * {@code duration-seconds}, {@code users} (number of seeded users) and {@code mix}, a list of
+ * {@code operation:weight} pairs such as {@code get:60,list:20,create:10,update:5,delete:5}.
+ */
+public final class UserApiLoadGenerator {
+
+  private static final String DEFAULT_MIX =
+      "get:60,list:20,create:8,update:6,delete:4,bulk:2,export:0";
+  private static final int BULK_SIZE = 10;
+
+  private enum Operation {
+    GET, LIST, CREATE, UPDATE, DELETE, BULK, EXPORT
+  }
+
+  private static final class Stats {
+
+    private final Recorder recorder = new Recorder(TimeUnit.MINUTES.toMicros(1), 3);
+    private final LongAdder success = new LongAdder();
+    private final LongAdder clientErrors = new LongAdder();
+    private final LongAdder serverErrors = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+  }
+
+  private final HttpClient client;
+  private final String baseUrl;
+  private final int users;
+  private final Operation[] operations;
+  private final int[] cumulativeWeights;
+  private final Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+  private final AtomicLong emailSequence = new AtomicLong();
+  private volatile boolean recording;
+  private volatile boolean running = true;
+
+  private UserApiLoadGenerator(String baseUrl, int users, String mix) {
+    this.client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(5))
+        .build();
+    this.baseUrl = baseUrl;
+    this.users = users;
+    List<Operation> weightedOperations = new ArrayList<>();
+    List<Integer> weights = new ArrayList<>();
+    int total = 0;
+    for (String entry : mix.split(",")) {
+      String[] parts = entry.trim().split(":");
+      int weight = Integer.parseInt(parts[1].trim());
+      if (weight > 0) {
+        total += weight;
+        weightedOperations.add(Operation.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)));
+        weights.add(total);
+      }
+    }
+    this.operations = weightedOperations.toArray(new Operation[0]);
+    this.cumulativeWeights = weights.stream().mapToInt(Integer::intValue).toArray();
+    for (Operation operation : Operation.values()) {
+      stats.put(operation, new Stats());
+    }
+  }
+
+  public static void main(String[] args) throws InterruptedException {
+    String baseUrl = System.getProperty("base-url", "http://localhost:8080");
+    int threads = Integer.getInteger("threads", 16);
+    int warmupSeconds = Integer.getInteger("warmup-seconds", 10);
+    int durationSeconds = Integer.getInteger("duration-seconds", 60);
+    int users = Integer.getInteger("users", 1_000_000);
+    String mix = System.getProperty("mix", DEFAULT_MIX);
+
+    UserApiLoadGenerator generator = new UserApiLoadGenerator(baseUrl, users, mix);
+    System.out.printf("Load %s with %d threads, mix %s, %ds warmup, %ds measurement%n",
+        baseUrl, threads, mix, warmupSeconds, durationSeconds);
+    List<Thread> workers = new ArrayList<>(threads);
+    for (int i = 0; i < threads; i++) {
+      Thread worker = new Thread(generator::work, "load-" + i);
+      worker.start();
+      workers.add(worker);
+    }
+    TimeUnit.SECONDS.sleep(warmupSeconds);
+    generator.startRecording();
+    long start = System.nanoTime();
+    TimeUnit.SECONDS.sleep(durationSeconds);
+    generator.running = false;
+    double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+    for (Thread worker : workers) {
+      worker.join();
+    }
+    generator.report(elapsedSeconds);
+  }
+
+  private void startRecording() {
+    stats.values().forEach(stat -> stat.recorder.reset());
+    recording = true;
+  }
+
+  private void work() {
+    while (running) {
+      Operation operation = nextOperation();
+      HttpRequest request = request(operation);
+      long start = System.nanoTime();
+      int status;
+      try {
+        status = client.send(request, BodyHandlers.discarding()).statusCode();
+      } catch (IOException exception) {
+        status = -1;
+      } catch (InterruptedException exception) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      long latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+      if (recording && running) {
+        record(operation, status, latencyMicros);
+      }
+    }
+  }
+
+  private void record(Operation operation, int status, long latencyMicros) {
+    Stats stat = stats.get(operation);
+    stat.recorder.recordValue(Math.min(latencyMicros, TimeUnit.MINUTES.toMicros(1)));
+    if (status < 0) {
+      stat.failures.increment();
+    } else if (status >= 500) {
+      stat.serverErrors.increment();
+    } else if (status >= 400) {
+      stat.clientErrors.increment();
+    } else {
+      stat.success.increment();
+    }
+  }
+
+  private Operation nextOperation() {
+    int value = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+    for (int i = 0; i < cumulativeWeights.length; i++) {
+      if (value < cumulativeWeights[i]) {
+        return operations[i];
+      }
+    }
+    return operations[operations.length - 1];
+  }
+
+  private HttpRequest request(Operation operation) {
+    long id = ThreadLocalRandom.current().nextInt(users) + 1L;
+    return switch (operation) {
+      case GET -> get("/users/" + id);
+      case LIST -> get("/users?limit=50");
+      case EXPORT -> get("/users/export");
+      case CREATE -> send("POST", "/users", userJson(newEmail()));
+      case UPDATE -> send("PUT", "/users/" + id, userJson("user" + (id - 1) + "@loadtest.obms.de"));
+      case DELETE -> HttpRequest.newBuilder(URI.create(baseUrl + "/users/" + id))
+          .timeout(Duration.ofSeconds(30))
+          .DELETE()
+          .build();
+      case BULK -> {
+        StringBuilder body = new StringBuilder("[");
+        for (int i = 0; i < BULK_SIZE; i++) {
+          body.append(i == 0 ? "" : ",").append(userJson(newEmail()));
+        }
+        yield send("POST", "/users/bulk", body.append(']').toString());
+      }
+    };
+  }
+
+  private HttpRequest get(String path) {
+    return HttpRequest.newBuilder(URI.create(baseUrl + path))
+        .timeout(Duration.ofSeconds(30))
+        .header("Accept", "application/json")
+        .GET()
+        .build();
+  }
+
+  private HttpRequest send(String method, String path, String json) {
+    return HttpRequest.newBuilder(URI.create(baseUrl + path))
+        .timeout(Duration.ofSeconds(30))
+        .header("Content-Type", "application/json")
+        .method(method, BodyPublishers.ofString(json))
+        .build();
+  }
+
+  private String newEmail() {
+    return "load" + emailSequence.incrementAndGet() + "-" + System.nanoTime() + "@loadtest.obms.de";
+  }
+
+  private static String userJson(String email) {
+    return "{\"firstname\":\"Max\",\"lastname\":\"Mustermann\",\"email\":\"" + email + "\"}";
+  }
+
+  private void report(double elapsedSeconds) {
+    System.out.printf("%n%-8s %10s %10s %9s %9s %9s %9s %9s %7s %7s %7s%n", "op", "requests",
+        "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "4xx", "5xx", "failed");
+    Histogram total = new Histogram(TimeUnit.MINUTES.toMicros(1), 3);
+    for (Operation operation : Operation.values()) {
+      Stats stat = stats.get(operation);
+      Histogram histogram = stat.recorder.getIntervalHistogram();
+      if (histogram.getTotalCount() == 0) {
+        continue;
+      }
+      total.add(histogram);
+      printRow(operation.name().toLowerCase(Locale.ROOT), histogram, elapsedSeconds,
+          stat.clientErrors.sum(), stat.serverErrors.sum(), stat.failures.sum());
+    }
+    long clientErrors = stats.values().stream().mapToLong(stat -> stat.clientErrors.sum()).sum();
+    long serverErrors = stats.values().stream().mapToLong(stat -> stat.serverErrors.sum()).sum();
+    long failures = stats.values().stream().mapToLong(stat -> stat.failures.sum()).sum();
+    printRow("total", total, elapsedSeconds, clientErrors, serverErrors, failures);
+  }
+
+  private static void printRow(String name, Histogram histogram, double elapsedSeconds,
+      long clientErrors, long serverErrors, long failures) {
+    System.out.printf("%-8s %10d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f %7d %7d %7d%n", name,
+        histogram.getTotalCount(), histogram.getTotalCount() / elapsedSeconds,
+        histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(90) / 1000.0,
+        histogram.getValueAtPercentile(99) / 1000.0, histogram.getValueAtPercentile(99.9) / 1000.0,
+        histogram.getMaxValue() / 1000.0, clientErrors, serverErrors, failures);
+  }
+
+}
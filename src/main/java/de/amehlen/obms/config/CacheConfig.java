@@ -0,0 +1,19 @@
+package de.amehlen.obms.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Enables the read-through user cache. Size, TTL and statistics come from
+ * {@code spring.cache.caffeine.spec}; set {@code spring.cache.type=none} to switch the cache off
+ * for an environment. The cache is consulted before a transaction starts, so a hit does not take
+ * a database connection.
+ */
+@Configuration
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+public class CacheConfig {
+
+  public static final String USERS_CACHE = "users";
+
+}
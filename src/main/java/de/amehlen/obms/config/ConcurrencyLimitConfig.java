@@ -0,0 +1,39 @@
+package de.amehlen.obms.config;
+
+import de.amehlen.obms.interceptor.AdaptiveConcurrencyLimit;
+import de.amehlen.obms.interceptor.ConcurrencyLimitInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Creates the adaptive concurrency limits for reads and writes of the user API, registered by
+ * {@link WebConfig}. The limits of a budget move between its {@code min-limit} and
+ * {@code max-limit}, starting at {@code initial-limit}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "obms.concurrency-limit.enabled", havingValue = "true")
+public class ConcurrencyLimitConfig {
+
+  @Bean
+  public ConcurrencyLimitInterceptor concurrencyLimitInterceptor(MeterRegistry meterRegistry,
+      @Value("${obms.concurrency-limit.read.initial-limit:20}") int readInitialLimit,
+      @Value("${obms.concurrency-limit.read.min-limit:2}") int readMinLimit,
+      @Value("${obms.concurrency-limit.read.max-limit:200}") int readMaxLimit,
+      @Value("${obms.concurrency-limit.write.initial-limit:10}") int writeInitialLimit,
+      @Value("${obms.concurrency-limit.write.min-limit:1}") int writeMinLimit,
+      @Value("${obms.concurrency-limit.write.max-limit:50}") int writeMaxLimit,
+      @Value("${obms.concurrency-limit.queue-timeout:100ms}") Duration queueTimeout,
+      @Value("${obms.concurrency-limit.retry-after:1s}") Duration retryAfter) {
+    return new ConcurrencyLimitInterceptor(
+        new AdaptiveConcurrencyLimit(meterRegistry, "read", readInitialLimit, readMinLimit,
+            readMaxLimit),
+        new AdaptiveConcurrencyLimit(meterRegistry, "write", writeInitialLimit, writeMinLimit,
+            writeMaxLimit),
+        queueTimeout, retryAfter);
+  }
+
+}
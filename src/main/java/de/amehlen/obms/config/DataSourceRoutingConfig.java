@@ -0,0 +1,65 @@
+package de.amehlen.obms.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import de.amehlen.obms.datasource.ReplicaRoutingDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Replaces the single data source with a primary from {@code spring.datasource} and a read
+ * replica from {@code obms.datasource.replica}, each with its own Hikari pool. Read-only
+ * transactions go to the replica, see {@link ReplicaRoutingDataSource}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "obms.datasource.replica.enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+  @Bean
+  public ReplicaRoutingDataSource routingDataSource(Environment environment,
+      DataSourceProperties primaryProperties, MeterRegistry meterRegistry,
+      @Value("${obms.datasource.replica.retry-after:10s}") Duration retryAfter) {
+    Binder binder = Binder.get(environment);
+    HikariDataSource primary = createPool(binder, primaryProperties, "spring.datasource.hikari",
+        "primary", meterRegistry);
+    DataSourceProperties replicaProperties = binder
+        .bind("obms.datasource.replica", DataSourceProperties.class)
+        .orElseThrow(() -> new IllegalStateException("obms.datasource.replica.url is missing"));
+    HikariDataSource replica = createPool(binder, replicaProperties,
+        "obms.datasource.replica.hikari", "replica", meterRegistry);
+    replica.setReadOnly(true);
+    // an unreachable replica must fail the connection request, not the start of the pool
+    replica.setInitializationFailTimeout(-1);
+    return new ReplicaRoutingDataSource(primary, replica, retryAfter, meterRegistry);
+  }
+
+  @Bean
+  @Primary
+  public DataSource dataSource(ReplicaRoutingDataSource routingDataSource) {
+    return new LazyConnectionDataSourceProxy(routingDataSource);
+  }
+
+  private static HikariDataSource createPool(Binder binder, DataSourceProperties properties,
+      String hikariPrefix, String poolName, MeterRegistry meterRegistry) {
+    HikariDataSource pool = properties
+        .initializeDataSourceBuilder()
+        .type(HikariDataSource.class)
+        .build();
+    binder.bind(hikariPrefix, Bindable.ofInstance(pool));
+    pool.setPoolName(poolName);
+    pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+    return pool;
+  }
+
+}
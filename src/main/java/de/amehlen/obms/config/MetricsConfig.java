@@ -0,0 +1,21 @@
+package de.amehlen.obms.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Records the {@code @Timed} service methods. Request, repository, connection pool, cache and
+ * Hibernate metrics are bound by Spring Boot; {@code obms.metrics.detailed-histograms} switches
+ * the percentile histograms of all timers on.
+ */
+@Configuration
+public class MetricsConfig {
+
+  @Bean
+  public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+    return new TimedAspect(meterRegistry);
+  }
+
+}
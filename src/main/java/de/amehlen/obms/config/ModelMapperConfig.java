@@ -1,15 +0,0 @@
-package de.amehlen.obms.config;
-
-import org.modelmapper.ModelMapper;
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
-
-@Configuration
-public class ModelMapperConfig {
-
-  @Bean
-  public ModelMapper modelMapper() {
-    return new ModelMapper();
-  }
-
-}
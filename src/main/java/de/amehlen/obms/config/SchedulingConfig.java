@@ -0,0 +1,14 @@
+package de.amehlen.obms.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Runs background jobs such as the purge of soft-deleted users on Spring's single scheduler
+ * thread, so they never compete with each other for database connections.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+}
@@ -1,17 +1,31 @@
 package de.amehlen.obms.config;
 
+import java.lang.reflect.Field;
+import java.util.List;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfoHandlerMapping;
 import springfox.documentation.builders.ApiInfoBuilder;
 import springfox.documentation.builders.PathSelectors;
 import springfox.documentation.builders.RequestHandlerSelectors;
 import springfox.documentation.service.ApiInfo;
 import springfox.documentation.spi.DocumentationType;
 import springfox.documentation.spring.web.plugins.Docket;
+import springfox.documentation.spring.web.plugins.WebMvcRequestHandlerProvider;
 import springfox.documentation.swagger2.annotations.EnableSwagger2;
 
+/**
+ * Builds the API documentation. Scanning every handler method is a noticeable part of the startup
+ * time, so the production profile switches it off with {@code springfox.documentation.enabled}.
+ */
 @Configuration
 @EnableSwagger2
+@ConditionalOnProperty(name = "springfox.documentation.enabled", havingValue = "true",
+    matchIfMissing = true)
 public class SwaggerConfig {
 
   @Bean
@@ -25,6 +39,37 @@ public class SwaggerConfig {
         .apiInfo(apiInfo());
   }
 
+  /**
+   * Springfox only understands ant-style handler mappings, while the actuator endpoints are
+   * registered with path patterns. Hide those mappings from springfox so it can start.
+   */
+  @Bean
+  public static BeanPostProcessor springfoxHandlerProviderBeanPostProcessor() {
+    return new BeanPostProcessor() {
+
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName)
+          throws BeansException {
+        if (bean instanceof WebMvcRequestHandlerProvider) {
+          removePathPatternMappings(getHandlerMappings(bean));
+        }
+        return bean;
+      }
+
+      private void removePathPatternMappings(List<RequestMappingInfoHandlerMapping> mappings) {
+        mappings.removeIf(mapping -> mapping.getPatternParser() != null);
+      }
+
+      @SuppressWarnings("unchecked")
+      private List<RequestMappingInfoHandlerMapping> getHandlerMappings(Object bean) {
+        Field field = ReflectionUtils.findField(bean.getClass(), "handlerMappings");
+        ReflectionUtils.makeAccessible(field);
+        return (List<RequestMappingInfoHandlerMapping>) ReflectionUtils.getField(field, bean);
+      }
+
+    };
+  }
+
   private ApiInfo apiInfo() {
     return new ApiInfoBuilder()
         .title("Online Banking Management System API")
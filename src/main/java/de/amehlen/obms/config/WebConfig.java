@@ -0,0 +1,39 @@
+package de.amehlen.obms.config;
+
+import de.amehlen.obms.interceptor.ConcurrencyLimitInterceptor;
+import de.amehlen.obms.interceptor.ReadYourWritesInterceptor;
+import java.time.Duration;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+  private final ObjectProvider<ConcurrencyLimitInterceptor> concurrencyLimitInterceptor;
+  private final boolean replicaEnabled;
+  private final Duration readYourWritesWindow;
+
+  public WebConfig(ObjectProvider<ConcurrencyLimitInterceptor> concurrencyLimitInterceptor,
+      @Value("${obms.datasource.replica.enabled:false}") boolean replicaEnabled,
+      @Value("${obms.datasource.read-your-writes-window:5s}") Duration readYourWritesWindow) {
+    this.concurrencyLimitInterceptor = concurrencyLimitInterceptor;
+    this.replicaEnabled = replicaEnabled;
+    this.readYourWritesWindow = readYourWritesWindow;
+  }
+
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    // the export and the change feed stream for minutes and would hold a permit all the time
+    concurrencyLimitInterceptor.ifAvailable(interceptor -> registry.addInterceptor(interceptor)
+        .addPathPatterns("/users", "/users/**")
+        .excludePathPatterns("/users/export", "/users/changes"));
+    if (replicaEnabled) {
+      registry.addInterceptor(new ReadYourWritesInterceptor(readYourWritesWindow))
+          .addPathPatterns("/users", "/users/**");
+    }
+  }
+
+}
@@ -1,9 +1,25 @@
 package de.amehlen.obms.controller;
 
+import de.amehlen.obms.dto.request.BulkDeleteUserRequestDTO;
+import de.amehlen.obms.dto.request.UserPatchRequestDTO;
 import de.amehlen.obms.dto.request.UserRequestDTO;
+import de.amehlen.obms.dto.response.BulkDeleteUserResponseDTO;
+import de.amehlen.obms.dto.response.BulkUserResponseDTO;
+import de.amehlen.obms.dto.response.UserBatchResponseDTO;
+import de.amehlen.obms.dto.response.UserChangeEventDTO;
+import de.amehlen.obms.dto.response.UserPageResponseDTO;
 import de.amehlen.obms.dto.response.UserResponseDTO;
+import de.amehlen.obms.exception.UserVersionMismatchException;
+import de.amehlen.obms.repository.UserVersion;
+import de.amehlen.obms.service.IdempotencyStore;
+import de.amehlen.obms.service.IdempotencyStore.IdempotentResult;
+import de.amehlen.obms.service.UserChangeFeed;
+import de.amehlen.obms.service.UserExportFormat;
+import de.amehlen.obms.service.UserJsonCache;
+import de.amehlen.obms.service.UserSearchField;
 import de.amehlen.obms.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -11,45 +27,194 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import java.util.List;
 import javax.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @Tag(name = "users", description = "Endpoints for getting and manipulating bank users")
 @RestController
 @RequestMapping("/users")
 public class UserController {
 
+  static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+  static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+  static final String LAST_EVENT_ID = "Last-Event-ID";
+
   @Autowired
   private UserService userService;
 
+  @Autowired
+  private IdempotencyStore idempotencyStore;
+
+  @Autowired
+  private UserJsonCache userJsonCache;
+
+  @Autowired
+  private UserChangeFeed userChangeFeed;
+
   @Operation(
-      summary = "Get a list of all bank users",
-      description = "Get a list of all bank users saved in the database",
+      summary = "Get a page of bank users",
+      description = "Get a page of bank users ordered by id, continue with the returned cursor",
       tags = {"users"},
       responses = {
           @ApiResponse(
-              description = "List of all users",
+              description = "Page of users",
               responseCode = "200",
               content = @Content(
                   mediaType = "application/json",
-                  schema = @Schema(implementation = UserResponseDTO.class)
+                  schema = @Schema(implementation = UserPageResponseDTO.class)
               )
           )
       }
   )
   @GetMapping
-  public ResponseEntity<List<UserResponseDTO>> getAllUsers() {
-    List<UserResponseDTO> users = userService.getAllUsers();
-    return new ResponseEntity<>(users, HttpStatus.OK);
+  public ResponseEntity<byte[]> getAllUsers(
+      @Parameter(description = "cursor of the page to load, omit for the first page")
+      @RequestParam(value = "cursor", required = false) String cursor,
+      @Parameter(description = "maximum number of users per page, capped by the server")
+      @RequestParam(value = "limit", required = false) Integer limit) {
+    UserPageResponseDTO users = userService.getAllUsers(cursor, limit);
+    return json(ResponseEntity.ok(), userJsonCache.page(users));
+  }
+
+  @Operation(
+      summary = "Search bank users",
+      description = "Find bank users whose firstname, lastname or email starts with the query,"
+          + " ordered by the matched field and then id, continue with the returned cursor",
+      tags = {"users"},
+      responses = {
+          @ApiResponse(
+              description = "Page of matching users",
+              responseCode = "200",
+              content = @Content(
+                  mediaType = "application/json",
+                  schema = @Schema(implementation = UserPageResponseDTO.class)
+              )
+          ),
+          @ApiResponse(
+              description = "Query is shorter than the minimum prefix length",
+              responseCode = "400"
+          )
+      }
+  )
+  @GetMapping("/search")
+  public ResponseEntity<byte[]> searchUsers(
+      @Parameter(description = "prefix to search for")
+      @RequestParam(value = "q") String query,
+      @Parameter(description = "field to match, either FIRSTNAME, LASTNAME, EMAIL or ANY")
+      @RequestParam(value = "field", defaultValue = "ANY") UserSearchField field,
+      @Parameter(description = "cursor of the page to load, omit for the first page")
+      @RequestParam(value = "cursor", required = false) String cursor,
+      @Parameter(description = "maximum number of users per page, capped by the server")
+      @RequestParam(value = "limit", required = false) Integer limit) {
+    UserPageResponseDTO users = userService.searchUsers(query, field, cursor, limit);
+    return json(ResponseEntity.ok(), userJsonCache.page(users));
+  }
+
+  @Operation(
+      summary = "Export all bank users",
+      description = "Stream all bank users ordered by id as newline-delimited JSON or CSV",
+      tags = {"users"},
+      responses = {
+          @ApiResponse(
+              description = "All users, one per line",
+              responseCode = "200",
+              content = {
+                  @Content(mediaType = "application/x-ndjson"),
+                  @Content(mediaType = "text/csv")
+              }
+          )
+      }
+  )
+  @GetMapping("/export")
+  public ResponseEntity<StreamingResponseBody> exportUsers(
+      @Parameter(description = "export format, either NDJSON or CSV")
+      @RequestParam(value = "format", defaultValue = "NDJSON") UserExportFormat format) {
+    StreamingResponseBody body = outputStream -> userService.exportUsers(outputStream, format);
+    return ResponseEntity
+        .ok()
+        .contentType(MediaType.parseMediaType(format.getMediaType()))
+        .body(body);
+  }
+
+  @Operation(
+      summary = "Stream changes of bank users",
+      description = "Stream created, updated and deleted users as server-sent events named"
+          + " user-change, each with its sequence as id. A reconnect resumes after the sequence in"
+          + " Last-Event-ID or since. A reset event means the changes after that position are"
+          + " gone, read the users again and continue from the sequence of the reset event",
+      tags = {"users"},
+      responses = {
+          @ApiResponse(
+              description = "Stream of user changes",
+              responseCode = "200",
+              content = @Content(
+                  mediaType = "text/event-stream",
+                  schema = @Schema(implementation = UserChangeEventDTO.class)
+              )
+          ),
+          @ApiResponse(
+              description = "Too many subscribers",
+              responseCode = "503"
+          )
+      }
+  )
+  @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter streamUserChanges(
+      @Parameter(description = "sequence of the last change received, omit to receive only new"
+          + " changes")
+      @RequestParam(value = "since", required = false) Long since,
+      @Parameter(description = "sequence of the last change received, sent on reconnects")
+      @RequestHeader(value = LAST_EVENT_ID, required = false) String lastEventId) {
+    if (lastEventId == null) {
+      return userChangeFeed.subscribe(since);
+    }
+    try {
+      return userChangeFeed.subscribe(Long.valueOf(lastEventId.trim()));
+    } catch (NumberFormatException exception) {
+      // an unknown position ends in a reset event
+      return userChangeFeed.subscribe(-1L);
+    }
+  }
+
+  @Operation(
+      summary = "Get several users by id",
+      description = "Get up to obms.users.batch.max-size users with a single query, in the order"
+          + " of the requested ids. Ids without a user are listed as missing",
+      tags = {"users"},
+      responses = {
+          @ApiResponse(
+              description = "Found users and missing ids",
+              responseCode = "200",
+              content = @Content(
+                  mediaType = "application/json",
+                  schema = @Schema(implementation = UserBatchResponseDTO.class)
+              )
+          )
+      }
+  )
+  @GetMapping("/batch")
+  public ResponseEntity<byte[]> getUsersByIds(
+      @Parameter(description = "comma separated user ids")
+      @RequestParam(value = "ids") List<Long> ids) {
+    UserBatchResponseDTO users = userService.getUsersByIds(ids);
+    return json(ResponseEntity.ok(), userJsonCache.batch(users));
   }
 
   @Operation(
@@ -64,18 +229,34 @@ public class UserController {
                   mediaType = "application/json",
                   schema = @Schema(implementation = UserResponseDTO.class)
               )
+          ),
+          @ApiResponse(
+              description = "Selected user has not changed since the given ETag or date",
+              responseCode = "304"
           )
       }
   )
   @GetMapping("/{id}")
-  public ResponseEntity<UserResponseDTO> getUserById(@PathVariable(value = "id") Long id) {
+  public ResponseEntity<byte[]> getUserById(@PathVariable(value = "id") Long id,
+      WebRequest webRequest) {
+    if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+        || webRequest.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null) {
+      // answer revalidations from the version alone, without loading and mapping the user
+      UserVersion userVersion = userService.getUserVersion(id);
+      if (webRequest.checkNotModified(eTag(userVersion.getVersion()),
+          userVersion.getLastModified() == null ? -1
+              : userVersion.getLastModified().toEpochMilli())) {
+        return null;
+      }
+    }
     UserResponseDTO user = userService.getUserById(id);
-    return new ResponseEntity<>(user, HttpStatus.OK);
+    return json(withValidators(ResponseEntity.ok(), user), userJsonCache.user(user));
   }
 
   @Operation(
       summary = "Add a new user",
-      description = "Add a new user to the database",
+      description = "Add a new user to the database. A retry with the same Idempotency-Key"
+          + " returns the original response instead of creating the user again",
       tags = {"users"},
       responses = {
           @ApiResponse(
@@ -85,15 +266,52 @@ public class UserController {
                   mediaType = "application/json",
                   schema = @Schema(implementation = UserResponseDTO.class)
               )
+          ),
+          @ApiResponse(
+              description = "Idempotency-Key was already used for a different user",
+              responseCode = "422"
           )
       }
   )
   @PostMapping
   @ResponseStatus(HttpStatus.CREATED)
   public ResponseEntity<UserResponseDTO> createNewUser(
+      @Parameter(description = "client chosen key that identifies retries of the same request")
+      @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
       @Valid @RequestBody UserRequestDTO userRequestDTO) {
-    UserResponseDTO user = userService.createNewUser(userRequestDTO);
-    return new ResponseEntity<>(user, HttpStatus.CREATED);
+    if (idempotencyKey == null) {
+      UserResponseDTO user = userService.createNewUser(userRequestDTO);
+      return new ResponseEntity<>(user, HttpStatus.CREATED);
+    }
+    IdempotentResult<UserResponseDTO> result = idempotencyStore.execute("POST /users",
+        idempotencyKey, userRequestDTO, () -> userService.createNewUser(userRequestDTO));
+    return ResponseEntity
+        .status(HttpStatus.CREATED)
+        .header(IDEMPOTENT_REPLAYED, Boolean.toString(result.replayed()))
+        .body(result.value());
+  }
+
+  @Operation(
+      summary = "Add new users in bulk",
+      description = "Add a list of new users to the database, every item is created, rejected as"
+          + " conflict or rejected as invalid on its own",
+      tags = {"users"},
+      responses = {
+          @ApiResponse(
+              description = "Outcome of every item",
+              responseCode = "200",
+              content = @Content(
+                  mediaType = "application/json",
+                  schema = @Schema(implementation = BulkUserResponseDTO.class)
+              )
+          )
+      }
+  )
+  @PostMapping("/bulk")
+  public ResponseEntity<BulkUserResponseDTO> createNewUsers(
+      @RequestBody List<UserRequestDTO> userRequestDTOs) {
+    BulkUserResponseDTO result = userService.createNewUsers(userRequestDTOs);
+    return new ResponseEntity<>(result, HttpStatus.OK);
   }
 
   @Operation(
@@ -108,14 +326,45 @@ public class UserController {
                   mediaType = "application/json",
                   schema = @Schema(implementation = UserResponseDTO.class)
               )
+          ),
+          @ApiResponse(
+              description = "Selected user was modified since the ETag given in If-Match",
+              responseCode = "412"
           )
       }
   )
   @PutMapping("/{id}")
   public ResponseEntity<UserResponseDTO> updateUser(@PathVariable(value = "id") Long id,
+      @Parameter(description = "ETag of the user version the update is based on")
+      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
       @Valid @RequestBody UserRequestDTO userRequestDTO) {
-    UserResponseDTO updatedUser = userService.updateUser(id, userRequestDTO);
-    return new ResponseEntity<>(updatedUser, HttpStatus.OK);
+    UserResponseDTO updatedUser = userService.updateUser(id, userRequestDTO,
+        parseVersion(id, ifMatch));
+    return withValidators(ResponseEntity.ok(), updatedUser).body(updatedUser);
+  }
+
+  @Operation(
+      summary = "Partially update a selected user",
+      description = "Change only the given fields of a selected user without returning it",
+      tags = {"users"},
+      responses = {
+          @ApiResponse(
+              description = "Selected user was updated",
+              responseCode = "204"
+          ),
+          @ApiResponse(
+              description = "Selected user was modified since the ETag given in If-Match",
+              responseCode = "412"
+          )
+      }
+  )
+  @PatchMapping("/{id}")
+  @ResponseStatus(HttpStatus.NO_CONTENT)
+  public void patchUser(@PathVariable(value = "id") Long id,
+      @Parameter(description = "ETag of the user version the update is based on")
+      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+      @Valid @RequestBody UserPatchRequestDTO userPatchRequestDTO) {
+    userService.patchUser(id, userPatchRequestDTO, parseVersion(id, ifMatch));
   }
 
   @Operation(
@@ -128,4 +377,70 @@ public class UserController {
     userService.deleteUser(id);
   }
 
+  @Operation(
+      summary = "Delete users in bulk",
+      description = "Delete users selected by id or by last modification, in chunks",
+      tags = {"users"},
+      responses = {
+          @ApiResponse(
+              description = "Number of deleted users",
+              responseCode = "200",
+              content = @Content(
+                  mediaType = "application/json",
+                  schema = @Schema(implementation = BulkDeleteUserResponseDTO.class)
+              )
+          ),
+          @ApiResponse(
+              description = "Too many ids in one request",
+              responseCode = "413"
+          )
+      }
+  )
+  @PostMapping("/bulk/delete")
+  public ResponseEntity<BulkDeleteUserResponseDTO> deleteUsers(
+      @Valid @RequestBody BulkDeleteUserRequestDTO bulkDeleteUserRequestDTO) {
+    BulkDeleteUserResponseDTO result = userService.deleteUsers(bulkDeleteUserRequestDTO);
+    return new ResponseEntity<>(result, HttpStatus.OK);
+  }
+
+  /**
+   * Writes JSON encoded by the {@link UserJsonCache} as it is, without serializing it again.
+   */
+  private static ResponseEntity<byte[]> json(ResponseEntity.BodyBuilder builder, byte[] json) {
+    return builder
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(json);
+  }
+
+  private static ResponseEntity.BodyBuilder withValidators(ResponseEntity.BodyBuilder builder,
+      UserResponseDTO user) {
+    if (user.getVersion() != null) {
+      builder.eTag(eTag(user.getVersion()));
+    }
+    if (user.getLastModified() != null) {
+      builder.lastModified(user.getLastModified());
+    }
+    return builder;
+  }
+
+  private static String eTag(Long version) {
+    return "\"" + version + "\"";
+  }
+
+  private static Long parseVersion(Long id, String ifMatch) {
+    if (ifMatch == null || ifMatch.trim().equals("*")) {
+      return null;
+    }
+    String eTag = ifMatch.trim();
+    if (eTag.startsWith("W/")) {
+      eTag = eTag.substring(2);
+    }
+    try {
+      return Long.valueOf(eTag.replace("\"", ""));
+    } catch (NumberFormatException exception) {
+      throw new UserVersionMismatchException(
+          "User with id " + id + " does not match the ETag " + ifMatch + ".");
+    }
+  }
+
 }
@@ -0,0 +1,140 @@
+package de.amehlen.obms.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Hands out replica connections to read-only transactions and primary connections to everything
+ * else. Requests carrying {@link #PRIMARY_REQUIRED_ATTRIBUTE} read from the primary as well, so a
+ * client sees its own writes before they reached the replica.
+ *
+ * <p>When the replica cannot hand out a connection, reads fall back to the primary and the
+ * replica is skipped for {@code obms.datasource.replica.retry-after}. The routing decision needs
+ * the transaction to be set up already, so the data source is used behind a
+ * {@link LazyConnectionDataSourceProxy}.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+  public static final String PRIMARY_REQUIRED_ATTRIBUTE =
+      ReplicaRoutingDataSource.class.getName() + ".primaryRequired";
+
+  private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+  private final DataSource primary;
+  private final DataSource replica;
+  private final long retryAfterNanos;
+  private final Counter primaryConnections;
+  private final Counter replicaConnections;
+  private final Counter fallbacks;
+  private volatile boolean replicaUnavailable;
+  private volatile long replicaUnavailableSince;
+
+  public ReplicaRoutingDataSource(DataSource primary, DataSource replica, Duration retryAfter,
+      MeterRegistry meterRegistry) {
+    this.primary = primary;
+    this.replica = replica;
+    this.retryAfterNanos = retryAfter.toNanos();
+    setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+    setDefaultTargetDataSource(primary);
+    this.primaryConnections = Counter
+        .builder("obms.datasource.connections")
+        .description("Connections handed out by the routing data source")
+        .tag("target", "primary")
+        .register(meterRegistry);
+    this.replicaConnections = Counter
+        .builder("obms.datasource.connections")
+        .description("Connections handed out by the routing data source")
+        .tag("target", "replica")
+        .register(meterRegistry);
+    this.fallbacks = Counter
+        .builder("obms.datasource.replica.fallbacks")
+        .description("Reads sent to the primary because the replica was unavailable")
+        .register(meterRegistry);
+    Gauge
+        .builder("obms.datasource.replica.available", this,
+            dataSource -> dataSource.replicaUnavailable ? 0 : 1)
+        .description("Whether reads are currently sent to the replica")
+        .register(meterRegistry);
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    if (determineCurrentLookupKey() == Target.REPLICA) {
+      try {
+        Connection connection = replica.getConnection();
+        replicaConnections.increment();
+        if (replicaUnavailable) {
+          replicaUnavailable = false;
+          log.info("Replica database is available again");
+        }
+        return connection;
+      } catch (SQLException exception) {
+        markReplicaUnavailable(exception);
+      }
+    }
+    primaryConnections.increment();
+    return primary.getConnection();
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || isPrimaryRequired()
+        || !isReplicaAvailable()) {
+      return Target.PRIMARY;
+    }
+    return Target.REPLICA;
+  }
+
+  @Override
+  public void close() throws IOException {
+    for (DataSource dataSource : new DataSource[] {replica, primary}) {
+      if (dataSource instanceof Closeable closeable) {
+        closeable.close();
+      }
+    }
+  }
+
+  private boolean isReplicaAvailable() {
+    return !replicaUnavailable || System.nanoTime() - replicaUnavailableSince >= retryAfterNanos;
+  }
+
+  private void markReplicaUnavailable(SQLException exception) {
+    fallbacks.increment();
+    if (!replicaUnavailable) {
+      log.warn("Replica database is unavailable, reading from the primary: {}",
+          exception.getMessage());
+    }
+    replicaUnavailableSince = System.nanoTime();
+    replicaUnavailable = true;
+  }
+
+  /**
+   * Whether the current request has to read from the primary, see
+   * {@link #PRIMARY_REQUIRED_ATTRIBUTE}.
+   */
+  public static boolean isPrimaryRequired() {
+    RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+    return attributes != null && attributes
+        .getAttribute(PRIMARY_REQUIRED_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null;
+  }
+
+  private enum Target {
+    PRIMARY, REPLICA
+  }
+
+}
@@ -1,5 +1,7 @@
 package de.amehlen.obms.dto;
 
+import java.time.Instant;
+import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import lombok.Builder;
@@ -9,12 +11,31 @@ import lombok.Getter;
 @Builder(setterPrefix = "with")
 public class ErrorMessageDTO {
 
+  private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter
+      .ofPattern("yyyy-MM-dd hh:mm:ss a z Z");
+
+  // the timestamp has a resolution of seconds, so all errors within a second share one string
+  private static volatile FormattedSecond lastTimestamp = new FormattedSecond(-1, null);
+
   private String title;
   private String message;
   private int status;
   private String errorType;
-  private final String timestamp = ZonedDateTime
-      .now()
-      .format(DateTimeFormatter.ofPattern("yyyy-MM-dd hh:mm:ss a z Z"));
+  private final String timestamp = currentTimestamp();
+
+  private static String currentTimestamp() {
+    Instant now = Instant.now();
+    FormattedSecond formattedSecond = lastTimestamp;
+    if (formattedSecond.epochSecond() != now.getEpochSecond()) {
+      formattedSecond = new FormattedSecond(now.getEpochSecond(),
+          ZonedDateTime.ofInstant(now, ZoneId.systemDefault()).format(TIMESTAMP_FORMAT));
+      lastTimestamp = formattedSecond;
+    }
+    return formattedSecond.formatted();
+  }
+
+  private record FormattedSecond(long epochSecond, String formatted) {
+
+  }
 
 }
@@ -0,0 +1,38 @@
+package de.amehlen.obms.dto.request;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.Instant;
+import java.util.List;
+import javax.validation.constraints.AssertTrue;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder(setterPrefix = "with")
+@Schema(name = "Bulk Delete User Request", description = "Select users either by id or by filter")
+public class BulkDeleteUserRequestDTO {
+
+  @Schema(
+      description = "ids of the bank users to delete",
+      name = "ids",
+      example = "[1, 2, 3]"
+  )
+  private List<Long> ids;
+
+  @Schema(
+      description = "delete all bank users last modified before this instant",
+      name = "lastModifiedBefore",
+      type = "String",
+      example = "2020-01-01T00:00:00Z"
+  )
+  private Instant lastModifiedBefore;
+
+  @JsonIgnore
+  @Schema(hidden = true)
+  @AssertTrue(message = "Either ids or lastModifiedBefore must be given")
+  public boolean isSingleSelection() {
+    return (ids == null) != (lastModifiedBefore == null);
+  }
+
+}
@@ -0,0 +1,42 @@
+package de.amehlen.obms.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import javax.validation.constraints.Email;
+import javax.validation.constraints.Size;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder(setterPrefix = "with")
+@Schema(name = "User Patch Request", description = "Fields left out are not changed")
+public class UserPatchRequestDTO {
+
+  @Size(min = 1, message = "The firstname of the client may not be empty")
+  @Schema(
+      description = "new firstname of the bank user",
+      name = "firstname",
+      type = "String",
+      example = "Max"
+  )
+  private String firstname;
+
+  @Size(min = 1, message = "The lastname of the client may not be empty")
+  @Schema(
+      description = "new lastname of the bank user",
+      name = "lastname",
+      type = "String",
+      example = "Mustermann"
+  )
+  private String lastname;
+
+  @Size(min = 1, message = "The email of the client may not be empty")
+  @Email(message = "Email should be valid")
+  @Schema(
+      description = "new email of the bank user",
+      name = "email",
+      type = "String",
+      example = "max@mustermann.de"
+  )
+  private String email;
+
+}
@@ -0,0 +1,28 @@
+package de.amehlen.obms.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder(setterPrefix = "with")
+@Schema(name = "Bulk Delete User Response")
+public class BulkDeleteUserResponseDTO {
+
+  @Schema(
+      description = "number of deleted bank users",
+      name = "deleted",
+      type = "long",
+      example = "3"
+  )
+  private long deleted;
+
+  @Schema(
+      description = "whether the users were only marked deleted and are purged later",
+      name = "soft",
+      type = "boolean",
+      example = "false"
+  )
+  private boolean soft;
+
+}
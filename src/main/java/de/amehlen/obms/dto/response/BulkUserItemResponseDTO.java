@@ -0,0 +1,41 @@
+package de.amehlen.obms.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder(setterPrefix = "with")
+@Schema(name = "Bulk User Item Response")
+public class BulkUserItemResponseDTO {
+
+  @Schema(
+      description = "position of the item in the bulk request",
+      name = "index",
+      type = "int",
+      example = "0"
+  )
+  private int index;
+
+  @Schema(
+      description = "outcome of the item",
+      name = "status",
+      example = "CREATED"
+  )
+  private BulkUserItemStatus status;
+
+  @Schema(
+      description = "created bank user, only set if the item was created",
+      name = "user"
+  )
+  private UserResponseDTO user;
+
+  @Schema(
+      description = "reason why the item was not created",
+      name = "message",
+      type = "String",
+      example = "User with email max@mustermann.de already exist."
+  )
+  private String message;
+
+}
@@ -0,0 +1,9 @@
+package de.amehlen.obms.dto.response;
+
+public enum BulkUserItemStatus {
+
+  CREATED,
+  CONFLICT,
+  INVALID
+
+}
@@ -0,0 +1,43 @@
+package de.amehlen.obms.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder(setterPrefix = "with")
+@Schema(name = "Bulk User Response")
+public class BulkUserResponseDTO {
+
+  @Schema(
+      description = "number of created bank users",
+      name = "created",
+      type = "int",
+      example = "2"
+  )
+  private int created;
+
+  @Schema(
+      description = "number of items rejected because the email already exist",
+      name = "conflicts",
+      type = "int",
+      example = "1"
+  )
+  private int conflicts;
+
+  @Schema(
+      description = "number of items rejected because they are not valid",
+      name = "invalid",
+      type = "int",
+      example = "0"
+  )
+  private int invalid;
+
+  @Schema(
+      description = "outcome of every item, in request order",
+      name = "results"
+  )
+  private List<BulkUserItemResponseDTO> results;
+
+}
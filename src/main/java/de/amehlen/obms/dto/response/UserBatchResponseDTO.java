@@ -0,0 +1,25 @@
+package de.amehlen.obms.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder(setterPrefix = "with")
+@Schema(name = "User Batch Response")
+public class UserBatchResponseDTO {
+
+  @Schema(
+      description = "found bank users in the order of the requested ids",
+      name = "users"
+  )
+  private List<UserResponseDTO> users;
+
+  @Schema(
+      description = "requested ids without a bank user",
+      name = "missingIds"
+  )
+  private List<Long> missingIds;
+
+}
@@ -0,0 +1,44 @@
+package de.amehlen.obms.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.Instant;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder(setterPrefix = "with")
+@Schema(name = "User Change Event")
+public class UserChangeEventDTO {
+
+  @Schema(
+      description = "position of the change in the feed, resume after it with since",
+      name = "sequence",
+      type = "long",
+      example = "42"
+  )
+  private long sequence;
+
+  @Schema(
+      description = "kind of change",
+      name = "type",
+      example = "UPDATED"
+  )
+  private UserChangeType type;
+
+  @Schema(
+      description = "id of the changed bank user",
+      name = "userId",
+      type = "long",
+      example = "1"
+  )
+  private Long userId;
+
+  @Schema(
+      description = "time the change was committed",
+      name = "occurredAt",
+      type = "String",
+      example = "2020-01-01T00:00:00Z"
+  )
+  private Instant occurredAt;
+
+}
@@ -0,0 +1,9 @@
+package de.amehlen.obms.dto.response;
+
+public enum UserChangeType {
+
+  CREATED,
+  UPDATED,
+  DELETED
+
+}
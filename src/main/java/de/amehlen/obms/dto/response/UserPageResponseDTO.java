@@ -0,0 +1,27 @@
+package de.amehlen.obms.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder(setterPrefix = "with")
+@Schema(name = "User Page Response")
+public class UserPageResponseDTO {
+
+  @Schema(
+      description = "bank users of the requested page, in the order of the listing or search",
+      name = "users"
+  )
+  private List<UserResponseDTO> users;
+
+  @Schema(
+      description = "opaque cursor of the next page, null if this is the last page",
+      name = "nextCursor",
+      type = "String",
+      example = "MTA"
+  )
+  private String nextCursor;
+
+}
@@ -1,6 +1,8 @@
 package de.amehlen.obms.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.Instant;
 import lombok.Builder;
 import lombok.Data;
 
@@ -41,4 +43,12 @@ public class UserResponseDTO {
   )
   private String email;
 
+  @JsonIgnore
+  @Schema(hidden = true)
+  private Long version;
+
+  @JsonIgnore
+  @Schema(hidden = true)
+  private Instant lastModified;
+
 }
@@ -0,0 +1,9 @@
+package de.amehlen.obms.exception;
+
+public class BulkRequestTooLargeException extends StacklessException {
+
+  public BulkRequestTooLargeException(String message) {
+    super(message);
+  }
+
+}
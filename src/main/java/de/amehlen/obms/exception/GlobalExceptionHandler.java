@@ -3,7 +3,9 @@ package de.amehlen.obms.exception;
 import de.amehlen.obms.dto.ErrorMessageDTO;
 import java.util.HashMap;
 import java.util.Map;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -42,6 +44,106 @@ public class GlobalExceptionHandler {
     );
   }
 
+  @ExceptionHandler(UserVersionMismatchException.class)
+  public ResponseEntity<ErrorMessageDTO> handleUserVersionMismatchException(
+      UserVersionMismatchException exception) {
+    return new ResponseEntity<>(
+        ErrorMessageDTO.builder()
+            .withTitle("User Version Mismatch")
+            .withMessage(exception.getMessage())
+            .withStatus(HttpStatus.PRECONDITION_FAILED.value())
+            .withErrorType(UserVersionMismatchException.class.getSimpleName())
+            .build(),
+        HttpStatus.PRECONDITION_FAILED
+    );
+  }
+
+  @ExceptionHandler(InvalidCursorException.class)
+  public ResponseEntity<ErrorMessageDTO> handleInvalidCursorException(
+      InvalidCursorException exception) {
+    return new ResponseEntity<>(
+        ErrorMessageDTO.builder()
+            .withTitle("Invalid Cursor")
+            .withMessage(exception.getMessage())
+            .withStatus(HttpStatus.BAD_REQUEST.value())
+            .withErrorType(InvalidCursorException.class.getSimpleName())
+            .build(),
+        HttpStatus.BAD_REQUEST
+    );
+  }
+
+  @ExceptionHandler(InvalidSearchQueryException.class)
+  public ResponseEntity<ErrorMessageDTO> handleInvalidSearchQueryException(
+      InvalidSearchQueryException exception) {
+    return new ResponseEntity<>(
+        ErrorMessageDTO.builder()
+            .withTitle("Invalid Search Query")
+            .withMessage(exception.getMessage())
+            .withStatus(HttpStatus.BAD_REQUEST.value())
+            .withErrorType(InvalidSearchQueryException.class.getSimpleName())
+            .build(),
+        HttpStatus.BAD_REQUEST
+    );
+  }
+
+  @ExceptionHandler(InvalidIdempotencyKeyException.class)
+  public ResponseEntity<ErrorMessageDTO> handleInvalidIdempotencyKeyException(
+      InvalidIdempotencyKeyException exception) {
+    return new ResponseEntity<>(
+        ErrorMessageDTO.builder()
+            .withTitle("Invalid Idempotency Key")
+            .withMessage(exception.getMessage())
+            .withStatus(HttpStatus.BAD_REQUEST.value())
+            .withErrorType(InvalidIdempotencyKeyException.class.getSimpleName())
+            .build(),
+        HttpStatus.BAD_REQUEST
+    );
+  }
+
+  @ExceptionHandler(IdempotencyKeyMismatchException.class)
+  public ResponseEntity<ErrorMessageDTO> handleIdempotencyKeyMismatchException(
+      IdempotencyKeyMismatchException exception) {
+    return new ResponseEntity<>(
+        ErrorMessageDTO.builder()
+            .withTitle("Idempotency Key Mismatch")
+            .withMessage(exception.getMessage())
+            .withStatus(HttpStatus.UNPROCESSABLE_ENTITY.value())
+            .withErrorType(IdempotencyKeyMismatchException.class.getSimpleName())
+            .build(),
+        HttpStatus.UNPROCESSABLE_ENTITY
+    );
+  }
+
+  @ExceptionHandler(BulkRequestTooLargeException.class)
+  public ResponseEntity<ErrorMessageDTO> handleBulkRequestTooLargeException(
+      BulkRequestTooLargeException exception) {
+    return new ResponseEntity<>(
+        ErrorMessageDTO.builder()
+            .withTitle("Bulk Request Too Large")
+            .withMessage(exception.getMessage())
+            .withStatus(HttpStatus.PAYLOAD_TOO_LARGE.value())
+            .withErrorType(BulkRequestTooLargeException.class.getSimpleName())
+            .build(),
+        HttpStatus.PAYLOAD_TOO_LARGE
+    );
+  }
+
+  @ExceptionHandler(ServiceOverloadedException.class)
+  public ResponseEntity<ErrorMessageDTO> handleServiceOverloadedException(
+      ServiceOverloadedException exception) {
+    // fixed content type, so event stream clients of the change feed get the error as well
+    return ResponseEntity
+        .status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, Long.toString(exception.getRetryAfterSeconds()))
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(ErrorMessageDTO.builder()
+            .withTitle("Service Overloaded")
+            .withMessage(exception.getMessage())
+            .withStatus(HttpStatus.SERVICE_UNAVAILABLE.value())
+            .withErrorType(ServiceOverloadedException.class.getSimpleName())
+            .build());
+  }
+
   @ResponseStatus(HttpStatus.BAD_REQUEST)
   @ExceptionHandler(MethodArgumentNotValidException.class)
   public Map<String, String> handleValidationExceptions(
@@ -0,0 +1,9 @@
+package de.amehlen.obms.exception;
+
+public class IdempotencyKeyMismatchException extends StacklessException {
+
+  public IdempotencyKeyMismatchException(String message) {
+    super(message);
+  }
+
+}
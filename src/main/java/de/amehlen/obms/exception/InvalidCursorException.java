@@ -0,0 +1,9 @@
+package de.amehlen.obms.exception;
+
+public class InvalidCursorException extends StacklessException {
+
+  public InvalidCursorException(String message) {
+    super(message);
+  }
+
+}
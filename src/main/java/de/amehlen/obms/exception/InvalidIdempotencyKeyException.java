@@ -0,0 +1,9 @@
+package de.amehlen.obms.exception;
+
+public class InvalidIdempotencyKeyException extends StacklessException {
+
+  public InvalidIdempotencyKeyException(String message) {
+    super(message);
+  }
+
+}
@@ -0,0 +1,9 @@
+package de.amehlen.obms.exception;
+
+public class InvalidSearchQueryException extends StacklessException {
+
+  public InvalidSearchQueryException(String message) {
+    super(message);
+  }
+
+}
@@ -0,0 +1,16 @@
+package de.amehlen.obms.exception;
+
+public class ServiceOverloadedException extends StacklessException {
+
+  private final long retryAfterSeconds;
+
+  public ServiceOverloadedException(String message, long retryAfterSeconds) {
+    super(message);
+    this.retryAfterSeconds = retryAfterSeconds;
+  }
+
+  public long getRetryAfterSeconds() {
+    return retryAfterSeconds;
+  }
+
+}
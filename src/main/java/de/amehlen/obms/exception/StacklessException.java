@@ -0,0 +1,15 @@
+package de.amehlen.obms.exception;
+
+/**
+ * Base class of the exceptions that {@link GlobalExceptionHandler} turns into error responses.
+ * They are expected outcomes, such as clients probing unknown ids or duplicate signups, and are
+ * never logged with a trace, so they skip capturing the stack trace and suppressed exceptions.
+ * That makes throwing one about as cheap as allocating it.
+ */
+public abstract class StacklessException extends RuntimeException {
+
+  protected StacklessException(String message) {
+    super(message, null, false, false);
+  }
+
+}
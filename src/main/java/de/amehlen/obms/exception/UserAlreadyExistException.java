@@ -1,6 +1,6 @@
 package de.amehlen.obms.exception;
 
-public class UserAlreadyExistException extends RuntimeException {
+public class UserAlreadyExistException extends StacklessException {
 
   public UserAlreadyExistException(String message) {
     super(message);
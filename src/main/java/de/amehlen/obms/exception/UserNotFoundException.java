@@ -1,6 +1,6 @@
 package de.amehlen.obms.exception;
 
-public class UserNotFoundException extends RuntimeException {
+public class UserNotFoundException extends StacklessException {
 
   public UserNotFoundException(String message) {
     super(message);
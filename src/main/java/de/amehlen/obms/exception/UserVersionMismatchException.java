@@ -0,0 +1,9 @@
+package de.amehlen.obms.exception;
+
+public class UserVersionMismatchException extends StacklessException {
+
+  public UserVersionMismatchException(String message) {
+    super(message);
+  }
+
+}
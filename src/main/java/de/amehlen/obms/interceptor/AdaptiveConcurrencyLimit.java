@@ -0,0 +1,175 @@
+package de.amehlen.obms.interceptor;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit that adapts to the observed latency, following the gradient algorithm of
+ * Netflix' concurrency-limits. A slowly moving average of the request latency serves as the
+ * baseline. While recent requests are about as fast as the baseline the limit grows by a small
+ * queue allowance, once they get slower it shrinks in proportion, so fewer requests wait in the
+ * connection pool when the database slows down. Failed requests shrink the limit as well.
+ *
+ * <p>A request over the limit waits for a released slot for at most the given timeout, but only
+ * if fewer requests than the limit are already waiting. Exposes
+ * {@code obms.concurrency-limit.limit}, {@code .in-flight}, {@code .queued} and
+ * {@code .rejections}, tagged with the budget.
+ */
+public final class AdaptiveConcurrencyLimit {
+
+  private static final int SHORT_WINDOW = 10;
+  private static final int LONG_WINDOW = 600;
+  // recent requests may be this much slower than the baseline before the limit shrinks
+  private static final double RTT_TOLERANCE = 1.5;
+  private static final double SMOOTHING = 0.2;
+  private static final double DROP_DECREASE = 0.9;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition released = lock.newCondition();
+  private final int minLimit;
+  private final int maxLimit;
+  private final Counter rejections;
+  private double limit;
+  private int inFlight;
+  private int queued;
+  private double shortRtt;
+  private double longRtt;
+
+  public AdaptiveConcurrencyLimit(MeterRegistry meterRegistry, String budget, int initialLimit,
+      int minLimit, int maxLimit) {
+    if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+      throw new IllegalArgumentException("Concurrency limit of " + budget
+          + " needs 1 <= min-limit <= initial-limit <= max-limit.");
+    }
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.limit = initialLimit;
+    this.rejections = Counter
+        .builder("obms.concurrency-limit.rejections")
+        .description("Requests rejected because the concurrency limit was reached")
+        .tag("budget", budget)
+        .register(meterRegistry);
+    Gauge
+        .builder("obms.concurrency-limit.limit", this, AdaptiveConcurrencyLimit::getLimit)
+        .description("Current adaptive concurrency limit")
+        .tag("budget", budget)
+        .register(meterRegistry);
+    Gauge
+        .builder("obms.concurrency-limit.in-flight", this, AdaptiveConcurrencyLimit::getInFlight)
+        .description("Requests currently holding a slot of the concurrency limit")
+        .tag("budget", budget)
+        .register(meterRegistry);
+    Gauge
+        .builder("obms.concurrency-limit.queued", this, AdaptiveConcurrencyLimit::getQueued)
+        .description("Requests waiting for a slot of the concurrency limit")
+        .tag("budget", budget)
+        .register(meterRegistry);
+  }
+
+  /**
+   * Takes a slot, waiting up to the timeout for one to be released. Every successful call must be
+   * followed by one {@link #release(long, boolean)}.
+   */
+  public boolean tryAcquire(long timeoutNanos) throws InterruptedException {
+    lock.lock();
+    try {
+      if (inFlight < (int) limit) {
+        inFlight++;
+        return true;
+      }
+      if (queued >= (int) limit || timeoutNanos <= 0) {
+        rejections.increment();
+        return false;
+      }
+      queued++;
+      try {
+        long remainingNanos = timeoutNanos;
+        while (inFlight >= (int) limit) {
+          if (remainingNanos <= 0) {
+            rejections.increment();
+            return false;
+          }
+          remainingNanos = released.awaitNanos(remainingNanos);
+        }
+      } finally {
+        queued--;
+      }
+      inFlight++;
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Releases a slot and adapts the limit to the latency of the request that held it.
+   */
+  public void release(long rttNanos, boolean dropped) {
+    lock.lock();
+    try {
+      int previousInFlight = inFlight;
+      inFlight--;
+      if (dropped) {
+        limit = Math.max(minLimit, limit * DROP_DECREASE);
+      } else {
+        update(rttNanos, previousInFlight);
+      }
+      released.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void update(long rttNanos, int previousInFlight) {
+    if (longRtt == 0) {
+      shortRtt = rttNanos;
+      longRtt = rttNanos;
+      return;
+    }
+    shortRtt += (rttNanos - shortRtt) * 2 / (SHORT_WINDOW + 1);
+    longRtt += (rttNanos - longRtt) * 2 / (LONG_WINDOW + 1);
+    // once a long slowdown is over, let the baseline catch up faster than the average would
+    if (longRtt > shortRtt * 2) {
+      longRtt *= 0.95;
+    }
+    // a limit that is not used is not tested, keep it instead of growing it
+    if (previousInFlight < limit / 2) {
+      return;
+    }
+    double gradient = Math.max(0.5, Math.min(1.0, RTT_TOLERANCE * longRtt / shortRtt));
+    double newLimit = limit * gradient + Math.sqrt(limit);
+    double smoothedLimit = limit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+    limit = Math.max(minLimit, Math.min(maxLimit, smoothedLimit));
+  }
+
+  public int getLimit() {
+    lock.lock();
+    try {
+      return (int) limit;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public int getInFlight() {
+    lock.lock();
+    try {
+      return inFlight;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public int getQueued() {
+    lock.lock();
+    try {
+      return queued;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+}
@@ -0,0 +1,66 @@
+package de.amehlen.obms.interceptor;
+
+import de.amehlen.obms.exception.ServiceOverloadedException;
+import java.time.Duration;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Bounds the number of requests working on the database at the same time. Reads and writes have
+ * their own {@link AdaptiveConcurrencyLimit}, so a burst of slow writes cannot starve the cheap,
+ * mostly cached reads. Surplus requests wait here for a short time and are then rejected with
+ * {@code 503} and {@code Retry-After} instead of queueing inside the pool until they time out.
+ */
+public class ConcurrencyLimitInterceptor implements HandlerInterceptor {
+
+  private static final String PERMIT_ATTRIBUTE =
+      ConcurrencyLimitInterceptor.class.getName() + ".permit";
+
+  private final AdaptiveConcurrencyLimit readLimit;
+  private final AdaptiveConcurrencyLimit writeLimit;
+  private final long queueTimeoutNanos;
+  private final long retryAfterSeconds;
+
+  public ConcurrencyLimitInterceptor(AdaptiveConcurrencyLimit readLimit,
+      AdaptiveConcurrencyLimit writeLimit, Duration queueTimeout, Duration retryAfter) {
+    this.readLimit = readLimit;
+    this.writeLimit = writeLimit;
+    this.queueTimeoutNanos = queueTimeout.toNanos();
+    this.retryAfterSeconds = Math.max(1, retryAfter.toSeconds());
+  }
+
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response,
+      Object handler) throws InterruptedException {
+    AdaptiveConcurrencyLimit limit = isRead(request) ? readLimit : writeLimit;
+    if (!limit.tryAcquire(queueTimeoutNanos)) {
+      throw new ServiceOverloadedException(
+          "Too many concurrent requests, please retry later.", retryAfterSeconds);
+    }
+    request.setAttribute(PERMIT_ATTRIBUTE, new Permit(limit, System.nanoTime()));
+    return true;
+  }
+
+  @Override
+  public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+      Object handler, Exception exception) {
+    if (request.getAttribute(PERMIT_ATTRIBUTE) instanceof Permit permit) {
+      request.removeAttribute(PERMIT_ATTRIBUTE);
+      // server errors are mostly timeouts of an overloaded database
+      boolean dropped = exception != null
+          || response.getStatus() >= HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+      permit.limit().release(System.nanoTime() - permit.startNanos(), dropped);
+    }
+  }
+
+  private static boolean isRead(HttpServletRequest request) {
+    String method = request.getMethod();
+    return "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method);
+  }
+
+  private record Permit(AdaptiveConcurrencyLimit limit, long startNanos) {
+
+  }
+
+}
@@ -0,0 +1,48 @@
+package de.amehlen.obms.interceptor;
+
+import de.amehlen.obms.datasource.ReplicaRoutingDataSource;
+import java.time.Duration;
+import java.util.Set;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.util.WebUtils;
+
+/**
+ * Lets a client read its own writes while they may still be on the way to the replica. Every
+ * write sets a cookie that lives for {@code obms.datasource.read-your-writes-window}, and requests
+ * carrying it read from the primary database.
+ */
+public class ReadYourWritesInterceptor implements HandlerInterceptor {
+
+  public static final String COOKIE_NAME = "obms-read-primary";
+
+  private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+  private final int windowSeconds;
+
+  public ReadYourWritesInterceptor(Duration window) {
+    // cookies expire in whole seconds, round up so the window is never shorter than configured
+    this.windowSeconds = (int) Math.max(1, (window.toMillis() + 999) / 1000);
+  }
+
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response,
+      Object handler) {
+    boolean write = !READ_METHODS.contains(request.getMethod());
+    if (write) {
+      // set before the handler runs, a streamed or failed response can no longer take headers
+      Cookie cookie = new Cookie(COOKIE_NAME, "1");
+      cookie.setMaxAge(windowSeconds);
+      cookie.setPath("/");
+      cookie.setHttpOnly(true);
+      response.addCookie(cookie);
+    }
+    if (write || WebUtils.getCookie(request, COOKIE_NAME) != null) {
+      request.setAttribute(ReplicaRoutingDataSource.PRIMARY_REQUIRED_ATTRIBUTE, Boolean.TRUE);
+    }
+    return true;
+  }
+
+}
@@ -0,0 +1,62 @@
+package de.amehlen.obms.loadtest;
+
+import de.amehlen.obms.model.User;
+import de.amehlen.obms.repository.UserRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills the embedded database of the load test profile with generated users before the
+ * application accepts traffic. Users get the ids 1..n, which the load generator relies on.
+ */
+@Component
+@Profile("loadtest")
+public class LoadTestDataSeeder implements ApplicationRunner {
+
+  private static final Logger log = LoggerFactory.getLogger(LoadTestDataSeeder.class);
+
+  private static final String[] FIRSTNAMES = {"Max", "Erika", "Julia", "Paul", "Anna", "Lukas"};
+  private static final String[] LASTNAMES = {"Mustermann", "Musterfrau", "Schmidt", "Meyer"};
+
+  private final UserRepository userRepository;
+  private final int users;
+  private final int batchSize;
+
+  public LoadTestDataSeeder(UserRepository userRepository,
+      @Value("${obms.loadtest.seed.users:1000000}") int users,
+      @Value("${obms.loadtest.seed.batch-size:5000}") int batchSize) {
+    this.userRepository = userRepository;
+    this.users = users;
+    this.batchSize = batchSize;
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    log.info("Seed {} bank users for the load test", users);
+    long start = System.nanoTime();
+    for (int from = 0; from < users; from += batchSize) {
+      int to = Math.min(from + batchSize, users);
+      List<User> batch = new ArrayList<>(to - from);
+      for (int number = from; number < to; number++) {
+        User user = new User();
+        user.setFirstname(FIRSTNAMES[number % FIRSTNAMES.length]);
+        user.setLastname(LASTNAMES[number % LASTNAMES.length]);
+        user.setEmail("user" + number + "@loadtest.obms.de");
+        batch.add(user);
+      }
+      userRepository.saveAll(batch);
+    }
+    long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    log.info("Seeded {} bank users in {} ms ({} rows/s)", users, elapsedMillis,
+        users * 1000L / elapsedMillis);
+  }
+
+}
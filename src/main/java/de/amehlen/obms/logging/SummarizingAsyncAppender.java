@@ -0,0 +1,61 @@
+package de.amehlen.obms.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Asynchronous appender that hands events to a bounded queue drained by a single worker thread.
+ * Once the queue is nearly full, events of level INFO and below are dropped while warnings and
+ * errors are kept. Instead of losing the drops silently, a summary warning with the number of
+ * dropped events is logged at most once per summary interval.
+ */
+public class SummarizingAsyncAppender extends AsyncAppender {
+
+  private final AtomicLong droppedEvents = new AtomicLong();
+  private final AtomicLong lastSummaryNanos = new AtomicLong(System.nanoTime());
+  private long summaryIntervalNanos = TimeUnit.SECONDS.toNanos(10);
+
+  public void setSummaryIntervalSeconds(long summaryIntervalSeconds) {
+    this.summaryIntervalNanos = TimeUnit.SECONDS.toNanos(summaryIntervalSeconds);
+  }
+
+  @Override
+  protected boolean isDiscardable(ILoggingEvent event) {
+    boolean discardable = super.isDiscardable(event);
+    if (discardable) {
+      droppedEvents.incrementAndGet();
+    }
+    return discardable;
+  }
+
+  @Override
+  protected void append(ILoggingEvent event) {
+    super.append(event);
+    if (droppedEvents.get() == 0) {
+      return;
+    }
+    long now = System.nanoTime();
+    long lastSummary = lastSummaryNanos.get();
+    if (now - lastSummary >= summaryIntervalNanos
+        && lastSummaryNanos.compareAndSet(lastSummary, now)) {
+      long dropped = droppedEvents.getAndSet(0);
+      if (dropped > 0) {
+        super.append(summary(dropped));
+      }
+    }
+  }
+
+  private ILoggingEvent summary(long dropped) {
+    LoggerContext loggerContext = (LoggerContext) getContext();
+    return new LoggingEvent(SummarizingAsyncAppender.class.getName(),
+        loggerContext.getLogger(SummarizingAsyncAppender.class), Level.WARN,
+        "Log queue of appender {} was full, dropped {} events of level INFO or below",
+        null, new Object[]{getName(), dropped});
+  }
+
+}
@@ -0,0 +1,34 @@
+package de.amehlen.obms.mapper;
+
+import de.amehlen.obms.dto.request.UserRequestDTO;
+import de.amehlen.obms.dto.response.UserResponseDTO;
+import de.amehlen.obms.model.User;
+import org.springframework.stereotype.Component;
+
+/**
+ * Maps between the user entity and its DTOs with plain accessor calls, avoiding the reflective
+ * type-map lookups of a generic mapper on every request.
+ */
+@Component
+public class UserMapper {
+
+  public UserResponseDTO toResponseDTO(User user) {
+    return UserResponseDTO.builder()
+        .withId(user.getId())
+        .withFirstname(user.getFirstname())
+        .withLastname(user.getLastname())
+        .withEmail(user.getEmail())
+        .withVersion(user.getVersion())
+        .withLastModified(user.getLastModified())
+        .build();
+  }
+
+  public User toEntity(UserRequestDTO userRequestDTO) {
+    User user = new User();
+    user.setFirstname(userRequestDTO.getFirstname());
+    user.setLastname(userRequestDTO.getLastname());
+    user.setEmail(userRequestDTO.getEmail());
+    return user;
+  }
+
+}
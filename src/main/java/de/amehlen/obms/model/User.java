@@ -1,22 +1,50 @@
 package de.amehlen.obms.model;
 
+import java.time.Instant;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+import javax.persistence.Version;
 import lombok.Data;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.annotations.Where;
 
 @Data
 @Entity
+@DynamicUpdate
+@Table(
+    uniqueConstraints = @UniqueConstraint(name = "uk_user_email", columnNames = "email"),
+    indexes = {
+        @Index(name = "idx_user_deleted_at", columnList = "deletedAt"),
+        @Index(name = "idx_user_firstname", columnList = "firstname, id"),
+        @Index(name = "idx_user_lastname", columnList = "lastname, id")
+    }
+)
+@Where(clause = "deleted_at is null")
 public class User {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.AUTO)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_id_generator")
+  @SequenceGenerator(name = "user_id_generator", sequenceName = "user_seq", allocationSize = 50)
   private Long id;
 
   private String firstname;
   private String lastname;
   private String email;
 
+  @Version
+  private Long version;
+
+  @UpdateTimestamp
+  private Instant lastModified;
+
+  // set when the user is soft-deleted, the row is removed later by the purge job
+  private Instant deletedAt;
 
 }
@@ -1,13 +1,63 @@
 package de.amehlen.obms.repository;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
 import de.amehlen.obms.model.User;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
 
   Optional<User> findUserByEmail(String email);
 
+  // read-only so that conditional GETs are served by the replica when one is configured
+  @Transactional(readOnly = true)
+  Optional<UserVersion> findVersionById(Long id);
+
+  // native, so the emails of soft-deleted users, which are still taken, are included
+  @Query(value = "select email from user where email in :emails", nativeQuery = true)
+  List<String> findExistingEmails(Collection<String> emails);
+
+  List<User> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+  @QueryHints({
+      @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+      @QueryHint(name = HINT_CACHEABLE, value = "false"),
+      @QueryHint(name = HINT_READONLY, value = "true")
+  })
+  @Query("select u from User u order by u.id")
+  Stream<User> streamAllByOrderByIdAsc();
+
+  // native, so the emails of soft-deleted users, which are still taken, are included
+  @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+  @Query(value = "select email from user", nativeQuery = true)
+  Stream<String> streamAllEmails();
+
+  @Query("select u.id from User u where u.lastModified < :before and u.id > :afterId order by u.id")
+  List<Long> findIdsModifiedBefore(Instant before, Long afterId, Pageable pageable);
+
+  // native, because the @Where clause hides soft-deleted users from JPQL
+  @Query(value = "select id from user where deleted_at < :cutoff order by id limit :limit",
+      nativeQuery = true)
+  List<Long> findIdsDeletedBefore(Instant cutoff, int limit);
+
+  @Transactional
+  @Modifying
+  @Query(value = "delete from user where id in :ids", nativeQuery = true)
+  int purgeAllByIds(Collection<Long> ids);
+
 }
@@ -0,0 +1,36 @@
+package de.amehlen.obms.repository;
+
+import de.amehlen.obms.model.User;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface UserRepositoryCustom {
+
+  /**
+   * Sets the given attributes of a user in a single update statement without loading it first.
+   * The version is incremented and, if an expected version is given, must still match.
+   *
+   * @return the number of updated rows, 0 if the user does not exist or the version differs
+   */
+  int updateAttributesById(Long id, Map<String, Object> attributes, Long expectedVersion);
+
+  /**
+   * Deletes those of the given users that exist, or marks them deleted if {@code deletedAt} is
+   * set, in one transaction. The users are locked first, so of two concurrent deletes of a user
+   * only one reports it.
+   *
+   * @return the ids of the deleted users
+   */
+  List<Long> deleteExistingByIds(Collection<Long> ids, Instant deletedAt);
+
+  /**
+   * Finds users whose attribute starts with the prefix and none of the excluded attributes does,
+   * ordered by the attribute and id and starting after the given value and id. Wildcards in the
+   * prefix are matched literally.
+   */
+  List<User> findByPrefix(String attribute, String prefix, Collection<String> excludedAttributes,
+      String afterValue, Long afterId, int limit);
+
+}
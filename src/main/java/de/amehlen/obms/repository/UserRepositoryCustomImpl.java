@@ -0,0 +1,99 @@
+package de.amehlen.obms.repository;
+
+import de.amehlen.obms.model.User;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import org.springframework.data.jpa.repository.query.EscapeCharacter;
+import org.springframework.transaction.annotation.Transactional;
+
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Override
+  @Transactional
+  public int updateAttributesById(Long id, Map<String, Object> attributes,
+      Long expectedVersion) {
+    CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+    CriteriaUpdate<User> update = builder.createCriteriaUpdate(User.class);
+    Root<User> user = update.from(User.class);
+    attributes.forEach(update::set);
+    // bulk updates bypass @Version and @UpdateTimestamp, so maintain both here
+    update.set(user.<Long>get("version"), builder.sum(user.<Long>get("version"), 1L));
+    update.set(user.<Instant>get("lastModified"), Instant.now());
+    // soft-deleted users can no longer be changed
+    Predicate matches = builder.and(builder.equal(user.get("id"), id),
+        builder.isNull(user.get("deletedAt")));
+    if (expectedVersion != null) {
+      matches = builder.and(matches, builder.equal(user.get("version"), expectedVersion));
+    }
+    update.where(matches);
+    return entityManager.createQuery(update).executeUpdate();
+  }
+
+  @Override
+  @Transactional
+  public List<Long> deleteExistingByIds(Collection<Long> ids, Instant deletedAt) {
+    // the @Where clause restricts this to users that are not soft-deleted yet
+    List<Long> existingIds = entityManager
+        .createQuery("select u.id from User u where u.id in :ids", Long.class)
+        .setParameter("ids", ids)
+        .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+        .getResultList();
+    if (existingIds.isEmpty()) {
+      return existingIds;
+    }
+    Query statement = deletedAt == null
+        ? entityManager.createQuery("delete from User u where u.id in :ids")
+        : entityManager.createQuery("update User u set u.deletedAt = :deletedAt,"
+            + " u.version = u.version + 1 where u.id in :ids")
+            .setParameter("deletedAt", deletedAt);
+    statement.setParameter("ids", existingIds).executeUpdate();
+    return existingIds;
+  }
+
+  @Override
+  public List<User> findByPrefix(String attribute, String prefix,
+      Collection<String> excludedAttributes, String afterValue, Long afterId, int limit) {
+    CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<User> query = builder.createQuery(User.class);
+    Root<User> user = query.from(User.class);
+    String pattern = EscapeCharacter.DEFAULT.escape(prefix) + "%";
+    char escape = EscapeCharacter.DEFAULT.getEscapeCharacter();
+    List<Predicate> predicates = new ArrayList<>();
+    // a LIKE with a constant prefix is an index range scan in MySQL, a synthetic upper bound is
+    // not, since the collation does not order the characters by code point
+    predicates.add(builder.like(user.get(attribute), pattern, escape));
+    for (String excludedAttribute : excludedAttributes) {
+      predicates.add(builder.notLike(user.get(excludedAttribute), pattern, escape));
+    }
+    if (afterValue != null) {
+      predicates.add(builder.or(
+          builder.greaterThan(user.get(attribute), afterValue),
+          builder.and(builder.equal(user.get(attribute), afterValue),
+              builder.greaterThan(user.get("id"), afterId))));
+    }
+    // ordered like the (attribute, id) index, so a page is a short range scan of that index
+    query
+        .where(predicates.toArray(Predicate[]::new))
+        .orderBy(builder.asc(user.get(attribute)), builder.asc(user.get("id")));
+    return entityManager
+        .createQuery(query)
+        .setMaxResults(limit)
+        .getResultList();
+  }
+
+}
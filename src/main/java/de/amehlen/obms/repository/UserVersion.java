@@ -0,0 +1,14 @@
+package de.amehlen.obms.repository;
+
+import java.time.Instant;
+
+/**
+ * Projection of the columns needed to answer conditional requests without loading the user.
+ */
+public interface UserVersion {
+
+  Long getVersion();
+
+  Instant getLastModified();
+
+}
@@ -0,0 +1,106 @@
+package de.amehlen.obms.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter of email addresses. {@link #mightContain(String)} never answers
+ * {@code false} for an added email, but may answer {@code true} for one that was never added.
+ * Entries cannot be removed; the filter is rebuilt instead.
+ */
+public final class EmailBloomFilter {
+
+  private final AtomicLongArray bits;
+  private final long bitCount;
+  private final int hashFunctions;
+  private final AtomicLong setBits = new AtomicLong();
+  private final AtomicLong insertions = new AtomicLong();
+
+  private EmailBloomFilter(long bitCount, int hashFunctions) {
+    this.bits = new AtomicLongArray(Math.toIntExact((bitCount + 63) / 64));
+    this.bitCount = bitCount;
+    this.hashFunctions = hashFunctions;
+  }
+
+  /**
+   * Creates a filter sized for the expected number of emails at the given false positive rate.
+   */
+  public static EmailBloomFilter create(long expectedInsertions, double falsePositiveRate) {
+    long expected = Math.max(1, expectedInsertions);
+    long bitCount = Math.max(64,
+        (long) Math.ceil(-expected * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2))));
+    int hashFunctions = Math.max(1, (int) Math.round((double) bitCount / expected * Math.log(2)));
+    return new EmailBloomFilter(bitCount, hashFunctions);
+  }
+
+  public void put(String email) {
+    long hash1 = hash(email);
+    long hash2 = mix(hash1) | 1;
+    for (int i = 0; i < hashFunctions; i++) {
+      long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+      if (setBit(bit)) {
+        setBits.incrementAndGet();
+      }
+    }
+    insertions.incrementAndGet();
+  }
+
+  public boolean mightContain(String email) {
+    long hash1 = hash(email);
+    long hash2 = mix(hash1) | 1;
+    for (int i = 0; i < hashFunctions; i++) {
+      long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+      if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public long bitCount() {
+    return bitCount;
+  }
+
+  public long insertions() {
+    return insertions.get();
+  }
+
+  /**
+   * Estimates the current false positive rate from the share of bits already set.
+   */
+  public double expectedFalsePositiveRate() {
+    return Math.pow((double) setBits.get() / bitCount, hashFunctions);
+  }
+
+  private boolean setBit(long bit) {
+    int index = (int) (bit >>> 6);
+    long mask = 1L << bit;
+    long word;
+    do {
+      word = bits.get(index);
+      if ((word & mask) != 0) {
+        return false;
+      }
+    } while (!bits.compareAndSet(index, word, word | mask));
+    return true;
+  }
+
+  // 64-bit FNV-1a over the UTF-8 bytes, spread with the SplitMix64 finalizer
+  private static long hash(String email) {
+    long hash = 0xcbf29ce484222325L;
+    for (byte b : email.getBytes(StandardCharsets.UTF_8)) {
+      hash ^= b;
+      hash *= 0x100000001b3L;
+    }
+    return mix(hash);
+  }
+
+  private static long mix(long value) {
+    long z = value + 0x9e3779b97f4a7c15L;
+    z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+    z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+    return z ^ (z >>> 31);
+  }
+
+}
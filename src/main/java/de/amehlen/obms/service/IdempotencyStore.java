@@ -0,0 +1,132 @@
+package de.amehlen.obms.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.amehlen.obms.exception.IdempotencyKeyMismatchException;
+import de.amehlen.obms.exception.InvalidIdempotencyKeyException;
+import de.amehlen.obms.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Remembers the outcome of requests sent with an {@code Idempotency-Key}, so that a retried
+ * request returns the original response instead of running again. A duplicate that arrives while
+ * the first request is still running waits for it for up to
+ * {@code obms.idempotency.wait-timeout}.
+ *
+ * <p>Only successful outcomes are kept, a failed request may be retried with the same key. The
+ * store holds at most {@code obms.idempotency.max-keys} keys for {@code obms.idempotency.ttl}, so
+ * a retry after that runs the request again.
+ */
+@Component
+public class IdempotencyStore {
+
+  private static final int MAX_KEY_LENGTH = 255;
+
+  private final Cache<String, Execution> executions;
+  private final long waitTimeoutNanos;
+  private final Counter executedRequests;
+  private final Counter replayedRequests;
+  private final Counter mismatchedRequests;
+
+  @Autowired
+  public IdempotencyStore(MeterRegistry meterRegistry,
+      @Value("${obms.idempotency.max-keys:100000}") long maxKeys,
+      @Value("${obms.idempotency.ttl:24h}") Duration ttl,
+      @Value("${obms.idempotency.wait-timeout:10s}") Duration waitTimeout) {
+    this.executions = Caffeine.newBuilder()
+        .maximumSize(maxKeys)
+        .expireAfterWrite(ttl)
+        .build();
+    this.waitTimeoutNanos = waitTimeout.toNanos();
+    this.executedRequests = requestCounter(meterRegistry, "executed");
+    this.replayedRequests = requestCounter(meterRegistry, "replayed");
+    this.mismatchedRequests = requestCounter(meterRegistry, "mismatch");
+    Gauge
+        .builder("obms.idempotency.keys", executions, Cache::estimatedSize)
+        .description("Idempotency keys currently remembered")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Runs the operation once per scope and key. The request must be equal to the one first sent
+   * with the key, otherwise the key was reused for a different request.
+   */
+  @SuppressWarnings("unchecked")
+  public <T> IdempotentResult<T> execute(String scope, String key, Object request,
+      Supplier<T> operation) {
+    if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+      throw new InvalidIdempotencyKeyException("Idempotency-Key must have 1 to "
+          + MAX_KEY_LENGTH + " characters.");
+    }
+    Execution execution = new Execution(request, new CompletableFuture<>());
+    String storeKey = scope + ' ' + key;
+    Execution previous = executions.asMap().putIfAbsent(storeKey, execution);
+    if (previous != null) {
+      if (!previous.request().equals(request)) {
+        mismatchedRequests.increment();
+        throw new IdempotencyKeyMismatchException(
+            "Idempotency-Key " + key + " was already used for a different request.");
+      }
+      replayedRequests.increment();
+      return new IdempotentResult<>((T) awaitResult(previous), true);
+    }
+    executedRequests.increment();
+    try {
+      T result = operation.get();
+      execution.result().complete(result);
+      return new IdempotentResult<>(result, false);
+    } catch (Throwable exception) {
+      // any failure, an Error as well, releases the key so that the request can be retried
+      executions.asMap().remove(storeKey, execution);
+      execution.result().completeExceptionally(exception);
+      throw exception;
+    }
+  }
+
+  private Object awaitResult(Execution execution) {
+    try {
+      return execution.result().get(waitTimeoutNanos, TimeUnit.NANOSECONDS);
+    } catch (ExecutionException exception) {
+      // the waiting duplicate fails like the original request
+      if (exception.getCause() instanceof Error error) {
+        throw error;
+      }
+      throw (RuntimeException) exception.getCause();
+    } catch (TimeoutException exception) {
+      throw new ServiceOverloadedException(
+          "A request with the same Idempotency-Key is still running, please retry later.", 1);
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new ServiceOverloadedException(
+          "A request with the same Idempotency-Key is still running, please retry later.", 1);
+    }
+  }
+
+  private static Counter requestCounter(MeterRegistry meterRegistry, String result) {
+    return Counter
+        .builder("obms.idempotency.requests")
+        .description("Requests sent with an Idempotency-Key")
+        .tag("result", result)
+        .register(meterRegistry);
+  }
+
+  public record IdempotentResult<T>(T value, boolean replayed) {
+
+  }
+
+  private record Execution(Object request, CompletableFuture<Object> result) {
+
+  }
+
+}
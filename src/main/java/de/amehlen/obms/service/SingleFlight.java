@@ -0,0 +1,75 @@
+package de.amehlen.obms.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Lets concurrent callers asking for the same key share one computation: the first caller
+ * computes, the others wait for its result or exception. Nothing is kept once the computation
+ * finished, that is left to the cache in front.
+ *
+ * <p>Counts computed and coalesced calls as {@code <name>{result=fetched|coalesced}} and the
+ * share of coalesced calls as {@code <name>.coalescing-ratio}.
+ */
+public final class SingleFlight<K, V> {
+
+  private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+  private final Counter fetched;
+  private final Counter coalesced;
+
+  public SingleFlight(MeterRegistry meterRegistry, String name) {
+    this.fetched = Counter
+        .builder(name)
+        .description("Lookups that went to the database or shared one that did")
+        .tag("result", "fetched")
+        .register(meterRegistry);
+    this.coalesced = Counter
+        .builder(name)
+        .description("Lookups that went to the database or shared one that did")
+        .tag("result", "coalesced")
+        .register(meterRegistry);
+    Gauge
+        .builder(name + ".coalescing-ratio", this, SingleFlight::coalescingRatio)
+        .description("Share of lookups that waited for a concurrent identical lookup")
+        .register(meterRegistry);
+  }
+
+  public V execute(K key, Supplier<V> computation) {
+    CompletableFuture<V> call = new CompletableFuture<>();
+    CompletableFuture<V> running = inFlight.putIfAbsent(key, call);
+    if (running != null) {
+      coalesced.increment();
+      try {
+        return running.join();
+      } catch (CompletionException exception) {
+        if (exception.getCause() instanceof Error error) {
+          throw error;
+        }
+        throw (RuntimeException) exception.getCause();
+      }
+    }
+    fetched.increment();
+    try {
+      V value = computation.get();
+      call.complete(value);
+      return value;
+    } catch (RuntimeException | Error exception) {
+      call.completeExceptionally(exception);
+      throw exception;
+    } finally {
+      inFlight.remove(key, call);
+    }
+  }
+
+  private double coalescingRatio() {
+    double total = fetched.count() + coalesced.count();
+    return total == 0 ? 0 : coalesced.count() / total;
+  }
+
+}
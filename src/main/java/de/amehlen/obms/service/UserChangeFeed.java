@@ -0,0 +1,241 @@
+package de.amehlen.obms.service;
+
+import de.amehlen.obms.dto.response.UserChangeEventDTO;
+import de.amehlen.obms.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Feed of committed user changes for downstream systems, so they no longer poll the full user
+ * list. The last {@code obms.users.changes.capacity} changes are kept in a ring buffer and
+ * numbered with a sequence, subscribers resume after the last sequence they received.
+ *
+ * <p>Every subscriber reads from the ring buffer at its own pace with at most one send in flight,
+ * so a slow consumer only delays itself and costs no memory beyond its position. A subscriber
+ * that falls so far behind that its next change was already overwritten, or that asks for a
+ * position the feed does not know, for example from before a restart, gets a {@code reset} event
+ * with the current sequence and has to read the users again. The sequence is kept in memory and
+ * only valid for this instance.
+ */
+@Component
+public class UserChangeFeed {
+
+  public static final String CHANGE_EVENT = "user-change";
+  public static final String RESET_EVENT = "reset";
+
+  private static final Logger log = LoggerFactory.getLogger(UserChangeFeed.class);
+  private static final int SEND_BATCH_SIZE = 100;
+
+  private final UserChangeEventDTO[] ring;
+  private final int maxSubscribers;
+  private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+  private final ThreadPoolExecutor senders;
+  private final ScheduledExecutorService heartbeats;
+  private final Counter resets;
+  private long latestSequence;
+
+  @Autowired
+  public UserChangeFeed(MeterRegistry meterRegistry,
+      @Value("${obms.users.changes.capacity:10000}") int capacity,
+      @Value("${obms.users.changes.max-subscribers:100}") int maxSubscribers,
+      @Value("${obms.users.changes.heartbeat-interval:15s}") Duration heartbeatInterval) {
+    this.ring = new UserChangeEventDTO[capacity];
+    this.maxSubscribers = maxSubscribers;
+    // a subscriber blocked by a slow client holds one thread, never more
+    this.senders = new ThreadPoolExecutor(0, maxSubscribers, 60, TimeUnit.SECONDS,
+        new SynchronousQueue<>(), daemonThreads("user-changes-"));
+    this.heartbeats = Executors.newSingleThreadScheduledExecutor(
+        daemonThreads("user-changes-heartbeat-"));
+    heartbeats.scheduleWithFixedDelay(
+        () -> subscribers.forEach(Subscriber::heartbeat),
+        heartbeatInterval.toMillis(), heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+    this.resets = Counter
+        .builder("obms.users.changes.resets")
+        .description("Subscribers told to read the users again because they lost their position")
+        .register(meterRegistry);
+    Gauge
+        .builder("obms.users.changes.subscribers", subscribers, Set::size)
+        .description("Subscribers of the user change feed")
+        .register(meterRegistry);
+    Gauge
+        .builder("obms.users.changes.sequence", this, UserChangeFeed::getLatestSequence)
+        .description("Sequence of the latest user change")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Takes the changes into the feed after the transaction committed. Writes that already
+   * committed in their repository call, without a surrounding transaction, are taken at once.
+   */
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onUserChanged(UserChangedEvent event) {
+    Instant occurredAt = Instant.now();
+    synchronized (this) {
+      for (Long userId : event.userIds()) {
+        latestSequence++;
+        ring[(int) ((latestSequence - 1) % ring.length)] = UserChangeEventDTO.builder()
+            .withSequence(latestSequence)
+            .withType(event.type())
+            .withUserId(userId)
+            .withOccurredAt(occurredAt)
+            .build();
+      }
+    }
+    subscribers.forEach(Subscriber::signal);
+  }
+
+  /**
+   * Returns up to {@code max} changes after the given sequence, or {@code null} if they are not
+   * available anymore or the sequence is unknown.
+   */
+  public synchronized List<UserChangeEventDTO> readAfter(long sequence, int max) {
+    long oldestSequence = Math.max(1, latestSequence - ring.length + 1);
+    if (sequence > latestSequence || sequence < oldestSequence - 1) {
+      return null;
+    }
+    List<UserChangeEventDTO> changes = new ArrayList<>();
+    for (long next = sequence + 1; next <= latestSequence && changes.size() < max; next++) {
+      changes.add(ring[(int) ((next - 1) % ring.length)]);
+    }
+    return changes;
+  }
+
+  public synchronized long getLatestSequence() {
+    return latestSequence;
+  }
+
+  /**
+   * Streams the changes after the given sequence, or only new changes if it is {@code null}.
+   */
+  public SseEmitter subscribe(Long afterSequence) {
+    if (subscribers.size() >= maxSubscribers) {
+      throw new ServiceOverloadedException(
+          "Too many subscribers of the user change feed, please retry later.", 10);
+    }
+    SseEmitter emitter = new SseEmitter();
+    Subscriber subscriber = new Subscriber(emitter,
+        afterSequence == null ? getLatestSequence() : afterSequence);
+    emitter.onCompletion(() -> subscribers.remove(subscriber));
+    emitter.onTimeout(emitter::complete);
+    emitter.onError(exception -> subscribers.remove(subscriber));
+    subscribers.add(subscriber);
+    subscriber.signal();
+    return emitter;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    heartbeats.shutdownNow();
+    subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    senders.shutdown();
+  }
+
+  private static CustomizableThreadFactory daemonThreads(String prefix) {
+    CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(prefix);
+    threadFactory.setDaemon(true);
+    return threadFactory;
+  }
+
+  private final class Subscriber implements Runnable {
+
+    private final SseEmitter emitter;
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final AtomicBoolean heartbeatDue = new AtomicBoolean();
+    private long position;
+
+    private Subscriber(SseEmitter emitter, long position) {
+      this.emitter = emitter;
+      this.position = position;
+    }
+
+    void signal() {
+      if (subscribers.contains(this) && scheduled.compareAndSet(false, true)) {
+        try {
+          senders.execute(this);
+        } catch (RejectedExecutionException exception) {
+          // never fail the write that signalled, the next change or heartbeat tries again
+          scheduled.set(false);
+        }
+      }
+    }
+
+    void heartbeat() {
+      heartbeatDue.set(true);
+      signal();
+    }
+
+    @Override
+    public void run() {
+      try {
+        sendAvailableChanges();
+      } catch (IOException | IllegalStateException exception) {
+        // the client went away, the emitter callbacks remove the subscriber
+        log.debug("User change subscriber disconnected: {}", exception.getMessage());
+        subscribers.remove(this);
+        return;
+      } finally {
+        scheduled.set(false);
+      }
+      // a change taken in after the last read found the flag still set and did not schedule us
+      if (getLatestSequence() > position) {
+        signal();
+      }
+    }
+
+    private void sendAvailableChanges() throws IOException {
+      boolean sent = false;
+      List<UserChangeEventDTO> changes;
+      while ((changes = readAfter(position, SEND_BATCH_SIZE)) == null || !changes.isEmpty()) {
+        if (changes == null) {
+          position = getLatestSequence();
+          resets.increment();
+          emitter.send(SseEmitter.event()
+              .id(Long.toString(position))
+              .name(RESET_EVENT)
+              .data(Map.of("sequence", position), MediaType.APPLICATION_JSON));
+        } else {
+          for (UserChangeEventDTO change : changes) {
+            emitter.send(SseEmitter.event()
+                .id(Long.toString(change.getSequence()))
+                .name(CHANGE_EVENT)
+                .data(change, MediaType.APPLICATION_JSON));
+          }
+          position = changes.get(changes.size() - 1).getSequence();
+        }
+        sent = true;
+      }
+      if (heartbeatDue.getAndSet(false) && !sent) {
+        emitter.send(SseEmitter.event().comment("heartbeat"));
+      }
+    }
+
+  }
+
+}
@@ -0,0 +1,12 @@
+package de.amehlen.obms.service;
+
+import de.amehlen.obms.dto.response.UserChangeType;
+import java.util.List;
+
+/**
+ * Published by {@link UserService} for every write, {@link UserChangeFeed} takes it into the feed
+ * once the transaction committed.
+ */
+public record UserChangedEvent(UserChangeType type, List<Long> userIds) {
+
+}
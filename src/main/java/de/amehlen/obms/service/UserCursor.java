@@ -0,0 +1,38 @@
+package de.amehlen.obms.service;
+
+import de.amehlen.obms.exception.InvalidCursorException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes and decodes the opaque keyset cursor used to page through users. The cursor wraps the
+ * id of the last user of a page; clients must treat it as an opaque token.
+ */
+final class UserCursor {
+
+  private UserCursor() {
+  }
+
+  static String encode(Long lastId) {
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(Long.toString(lastId).getBytes(StandardCharsets.US_ASCII));
+  }
+
+  static long decode(String cursor) {
+    if (cursor == null || cursor.isEmpty()) {
+      return 0L;
+    }
+    try {
+      String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+      long lastId = Long.parseLong(decoded);
+      if (lastId < 0) {
+        throw new InvalidCursorException("Cursor " + cursor + " is not valid.");
+      }
+      return lastId;
+    } catch (IllegalArgumentException exception) {
+      throw new InvalidCursorException("Cursor " + cursor + " is not valid.");
+    }
+  }
+
+}
@@ -0,0 +1,150 @@
+package de.amehlen.obms.service;
+
+import de.amehlen.obms.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Bloom filter of all registered emails, so that signups only look up emails in the database
+ * that might already be taken. The unique email constraint stays authoritative: a missed email,
+ * for example one registered by another instance, is still rejected on insert.
+ *
+ * <p>The filter is built when the application is ready and rebuilt every
+ * {@code obms.users.email-filter.rebuild-interval}, which drops the emails of deleted users.
+ * Until the first build finishes every email counts as possibly taken.
+ */
+@Component
+@Lazy(false)
+public class UserEmailFilter {
+
+  private static final Logger log = LoggerFactory.getLogger(UserEmailFilter.class);
+
+  private final UserRepository userRepository;
+  private final TransactionTemplate readOnlyTransaction;
+  private final boolean enabled;
+  private final long expectedInsertions;
+  private final double falsePositiveRate;
+  private final Timer rebuildTimer;
+  private final Counter skippedLookups;
+  private final Counter requiredLookups;
+  private volatile EmailBloomFilter filter;
+  private volatile EmailBloomFilter rebuilding;
+
+  @Autowired
+  public UserEmailFilter(UserRepository userRepository,
+      PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+      @Value("${obms.users.email-filter.enabled:true}") boolean enabled,
+      @Value("${obms.users.email-filter.expected-insertions:1000000}") long expectedInsertions,
+      @Value("${obms.users.email-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+    this.userRepository = userRepository;
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
+    this.enabled = enabled;
+    this.expectedInsertions = expectedInsertions;
+    this.falsePositiveRate = falsePositiveRate;
+    this.rebuildTimer = Timer
+        .builder("obms.user.email-filter.rebuild")
+        .description("Time to rebuild the email filter from the database")
+        .register(meterRegistry);
+    this.skippedLookups = Counter
+        .builder("obms.user.email-filter.lookups")
+        .description("Email checks answered by the filter or passed on to the database")
+        .tag("result", "skipped")
+        .register(meterRegistry);
+    this.requiredLookups = Counter
+        .builder("obms.user.email-filter.lookups")
+        .description("Email checks answered by the filter or passed on to the database")
+        .tag("result", "required")
+        .register(meterRegistry);
+    Gauge
+        .builder("obms.user.email-filter.size", this,
+            emailFilter -> emailFilter.filter == null ? 0 : emailFilter.filter.insertions())
+        .description("Emails added to the email filter")
+        .register(meterRegistry);
+    Gauge
+        .builder("obms.user.email-filter.false-positive-rate", this,
+            emailFilter -> emailFilter.filter == null ? 1
+                : emailFilter.filter.expectedFalsePositiveRate())
+        .description("Estimated share of new emails the filter reports as possibly taken")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Returns {@code false} only if no user with this email exists.
+   */
+  public boolean mightExist(String email) {
+    EmailBloomFilter current = filter;
+    if (!enabled || current == null || current.mightContain(normalize(email))) {
+      requiredLookups.increment();
+      return true;
+    }
+    skippedLookups.increment();
+    return false;
+  }
+
+  /**
+   * Records an email that was just saved to the database.
+   */
+  public void add(String email) {
+    String normalizedEmail = normalize(email);
+    // read the filter under construction first, it is only cleared after it replaced the current
+    EmailBloomFilter next = rebuilding;
+    if (next != null) {
+      next.put(normalizedEmail);
+    }
+    EmailBloomFilter current = filter;
+    if (current != null) {
+      current.put(normalizedEmail);
+    }
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void warmUp() {
+    rebuild();
+  }
+
+  @Scheduled(fixedDelayString = "${obms.users.email-filter.rebuild-interval:PT6H}",
+      initialDelayString = "${obms.users.email-filter.rebuild-interval:PT6H}")
+  public synchronized void rebuild() {
+    if (!enabled) {
+      return;
+    }
+    long start = System.nanoTime();
+    EmailBloomFilter next = EmailBloomFilter
+        .create(Math.max(expectedInsertions, 2 * userRepository.count()), falsePositiveRate);
+    // emails saved while the database is streamed are added to both filters
+    rebuilding = next;
+    readOnlyTransaction.executeWithoutResult(status -> {
+      try (Stream<String> emails = userRepository.streamAllEmails()) {
+        emails.map(UserEmailFilter::normalize).forEach(next::put);
+      }
+    });
+    filter = next;
+    rebuilding = null;
+    long elapsed = System.nanoTime() - start;
+    rebuildTimer.record(elapsed, TimeUnit.NANOSECONDS);
+    log.info("Built email filter of {} emails in {} ms", next.insertions(),
+        TimeUnit.NANOSECONDS.toMillis(elapsed));
+  }
+
+  private static String normalize(String email) {
+    return email.toLowerCase(Locale.ROOT);
+  }
+
+}
@@ -0,0 +1,18 @@
+package de.amehlen.obms.service;
+
+public enum UserExportFormat {
+
+  NDJSON("application/x-ndjson"),
+  CSV("text/csv");
+
+  private final String mediaType;
+
+  UserExportFormat(String mediaType) {
+    this.mediaType = mediaType;
+  }
+
+  public String getMediaType() {
+    return mediaType;
+  }
+
+}
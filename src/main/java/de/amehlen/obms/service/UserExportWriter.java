@@ -0,0 +1,102 @@
+package de.amehlen.obms.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import de.amehlen.obms.dto.response.UserResponseDTO;
+import java.io.BufferedWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes users one row at a time to an export stream, so nothing but the current row is kept in
+ * memory.
+ */
+abstract class UserExportWriter implements Flushable {
+
+  static UserExportWriter create(UserExportFormat format, OutputStream outputStream,
+      ObjectMapper objectMapper) throws IOException {
+    Writer writer = new BufferedWriter(
+        new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), 64 * 1024);
+    return switch (format) {
+      case NDJSON -> new NdjsonWriter(writer, objectMapper);
+      case CSV -> new CsvWriter(writer);
+    };
+  }
+
+  abstract void write(UserResponseDTO user) throws IOException;
+
+  private static final class NdjsonWriter extends UserExportWriter {
+
+    private final JsonGenerator generator;
+    private final ObjectWriter objectWriter;
+
+    private NdjsonWriter(Writer writer, ObjectMapper objectMapper) throws IOException {
+      this.generator = objectMapper.getFactory().createGenerator(writer);
+      this.generator.setRootValueSeparator(null);
+      this.objectWriter = objectMapper
+          .writerFor(UserResponseDTO.class)
+          .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    @Override
+    void write(UserResponseDTO user) throws IOException {
+      objectWriter.writeValue(generator, user);
+      generator.writeRaw('\n');
+    }
+
+    @Override
+    public void flush() throws IOException {
+      generator.flush();
+    }
+
+  }
+
+  private static final class CsvWriter extends UserExportWriter {
+
+    private final Writer writer;
+
+    private CsvWriter(Writer writer) throws IOException {
+      this.writer = writer;
+      this.writer.write("id,firstname,lastname,email\n");
+    }
+
+    @Override
+    void write(UserResponseDTO user) throws IOException {
+      writer.write(String.valueOf(user.getId()));
+      writer.write(',');
+      writeField(user.getFirstname());
+      writer.write(',');
+      writeField(user.getLastname());
+      writer.write(',');
+      writeField(user.getEmail());
+      writer.write('\n');
+    }
+
+    private void writeField(String value) throws IOException {
+      if (value == null) {
+        return;
+      }
+      if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+          && value.indexOf('\r') < 0) {
+        writer.write(value);
+        return;
+      }
+      writer.write('"');
+      writer.write(value.replace("\"", "\"\""));
+      writer.write('"');
+    }
+
+    @Override
+    public void flush() throws IOException {
+      writer.flush();
+    }
+
+  }
+
+}
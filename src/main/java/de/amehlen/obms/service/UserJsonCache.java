@@ -0,0 +1,181 @@
+package de.amehlen.obms.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.amehlen.obms.dto.response.UserBatchResponseDTO;
+import de.amehlen.obms.dto.response.UserPageResponseDTO;
+import de.amehlen.obms.dto.response.UserResponseDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the JSON encoding of up to {@code obms.users.json-cache.max-size} users, so reads write
+ * the bytes instead of running Jackson for every response. An entry is only used for the user
+ * version it was encoded from, an update therefore replaces it on the next read and deleted users
+ * are evicted by {@link UserService}.
+ *
+ * <p>Page and batch responses are assembled from the encoded users with the same field order and
+ * layout Jackson produces for their DTOs. Counts the users taken from the cache and encoded as
+ * {@code obms.users.json{result=cached|encoded}}.
+ */
+@Component
+public class UserJsonCache {
+
+  private static final byte[] USERS_START = ascii("{\"users\":[");
+  private static final byte[] NEXT_CURSOR = ascii("],\"nextCursor\":");
+  private static final byte[] MISSING_IDS = ascii("],\"missingIds\":[");
+  private static final byte[] NULL = ascii("null");
+
+  private final ObjectWriter userWriter;
+  private final Cache<Long, EncodedUser> encodedUsers;
+  private final Counter usersFromCache;
+  private final Counter usersEncoded;
+
+  @Autowired
+  public UserJsonCache(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+      @Value("${obms.users.json-cache.max-size:10000}") long maxSize) {
+    this.userWriter = objectMapper.writerFor(UserResponseDTO.class);
+    this.encodedUsers = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .build();
+    this.usersFromCache = userCounter(meterRegistry, "cached");
+    this.usersEncoded = userCounter(meterRegistry, "encoded");
+    Gauge
+        .builder("obms.users.json.cached-users", encodedUsers, Cache::estimatedSize)
+        .description("Users whose JSON encoding is currently cached")
+        .register(meterRegistry);
+  }
+
+  public byte[] user(UserResponseDTO user) {
+    Long version = user.getVersion();
+    if (user.getId() == null || version == null) {
+      usersEncoded.increment();
+      return encode(user);
+    }
+    EncodedUser encodedUser = encodedUsers.getIfPresent(user.getId());
+    if (encodedUser != null && encodedUser.version() == version) {
+      usersFromCache.increment();
+      return encodedUser.json();
+    }
+    usersEncoded.increment();
+    byte[] json = encode(user);
+    // a read from a lagging replica must not replace the encoding of a newer version
+    encodedUsers.asMap().merge(user.getId(), new EncodedUser(version, json),
+        (cached, encoded) -> cached.version() > encoded.version() ? cached : encoded);
+    return json;
+  }
+
+  public byte[] page(UserPageResponseDTO page) {
+    byte[][] users = users(page.getUsers());
+    byte[] nextCursor = page.getNextCursor() == null ? NULL : quote(page.getNextCursor());
+    int length = USERS_START.length + length(users) + NEXT_CURSOR.length + nextCursor.length + 1;
+    byte[] json = new byte[length];
+    int offset = put(json, 0, USERS_START);
+    offset = put(json, offset, users);
+    offset = put(json, offset, NEXT_CURSOR);
+    offset = put(json, offset, nextCursor);
+    json[offset] = '}';
+    return json;
+  }
+
+  public byte[] batch(UserBatchResponseDTO batch) {
+    byte[][] users = users(batch.getUsers());
+    byte[][] missingIds = batch.getMissingIds()
+        .stream()
+        .map(id -> ascii(id.toString()))
+        .toArray(byte[][]::new);
+    int length = USERS_START.length + length(users) + MISSING_IDS.length + length(missingIds) + 2;
+    byte[] json = new byte[length];
+    int offset = put(json, 0, USERS_START);
+    offset = put(json, offset, users);
+    offset = put(json, offset, MISSING_IDS);
+    offset = put(json, offset, missingIds);
+    json[offset++] = ']';
+    json[offset] = '}';
+    return json;
+  }
+
+  public void evict(Collection<Long> ids) {
+    encodedUsers.invalidateAll(ids);
+  }
+
+  private byte[][] users(List<UserResponseDTO> users) {
+    byte[][] json = new byte[users.size()][];
+    for (int index = 0; index < json.length; index++) {
+      json[index] = user(users.get(index));
+    }
+    return json;
+  }
+
+  private byte[] encode(UserResponseDTO user) {
+    try {
+      return userWriter.writeValueAsBytes(user);
+    } catch (JsonProcessingException exception) {
+      throw new IllegalStateException("User with id " + user.getId() + " is not serializable.",
+          exception);
+    }
+  }
+
+  private static byte[] quote(String value) {
+    byte[] escaped = JsonStringEncoder.getInstance().quoteAsUTF8(value);
+    byte[] quoted = new byte[escaped.length + 2];
+    quoted[0] = '"';
+    System.arraycopy(escaped, 0, quoted, 1, escaped.length);
+    quoted[quoted.length - 1] = '"';
+    return quoted;
+  }
+
+  /**
+   * Length of the elements separated by commas.
+   */
+  private static int length(byte[][] elements) {
+    int length = Math.max(elements.length - 1, 0);
+    for (byte[] element : elements) {
+      length += element.length;
+    }
+    return length;
+  }
+
+  private static int put(byte[] target, int offset, byte[][] elements) {
+    for (int index = 0; index < elements.length; index++) {
+      if (index > 0) {
+        target[offset++] = ',';
+      }
+      offset = put(target, offset, elements[index]);
+    }
+    return offset;
+  }
+
+  private static int put(byte[] target, int offset, byte[] source) {
+    System.arraycopy(source, 0, target, offset, source.length);
+    return offset + source.length;
+  }
+
+  private static byte[] ascii(String value) {
+    return value.getBytes(StandardCharsets.US_ASCII);
+  }
+
+  private static Counter userCounter(MeterRegistry meterRegistry, String result) {
+    return Counter
+        .builder("obms.users.json")
+        .description("Users written to a response from the JSON cache or encoded for it")
+        .tag("result", result)
+        .register(meterRegistry);
+  }
+
+  private record EncodedUser(long version, byte[] json) {
+
+  }
+
+}
@@ -0,0 +1,87 @@
+package de.amehlen.obms.service;
+
+import de.amehlen.obms.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Removes soft-deleted users once their retention has passed. Rows are purged in chunks of
+ * {@code obms.users.purge.chunk-size} with a pause between chunks and at most
+ * {@code obms.users.purge.max-chunks-per-run} chunks per run, which bounds the load the purge
+ * puts on the database.
+ */
+@Component
+@Lazy(false)
+@ConditionalOnProperty(name = "obms.users.delete.soft", havingValue = "true")
+public class UserPurgeJob {
+
+  private static final Logger log = LoggerFactory.getLogger(UserPurgeJob.class);
+
+  private final UserRepository userRepository;
+  private final Counter purgedUsers;
+  private final Duration retention;
+  private final int chunkSize;
+  private final int maxChunksPerRun;
+  private final Duration pause;
+
+  @Autowired
+  public UserPurgeJob(UserRepository userRepository, MeterRegistry meterRegistry,
+      @Value("${obms.users.purge.retention:30d}") Duration retention,
+      @Value("${obms.users.purge.chunk-size:1000}") int chunkSize,
+      @Value("${obms.users.purge.max-chunks-per-run:100}") int maxChunksPerRun,
+      @Value("${obms.users.purge.pause:200ms}") Duration pause) {
+    this.userRepository = userRepository;
+    this.purgedUsers = Counter
+        .builder("obms.user.purged")
+        .description("Soft-deleted users removed from the database")
+        .register(meterRegistry);
+    this.retention = retention;
+    this.chunkSize = chunkSize;
+    this.maxChunksPerRun = maxChunksPerRun;
+    this.pause = pause;
+  }
+
+  @Scheduled(fixedDelayString = "${obms.users.purge.interval:PT1M}",
+      initialDelayString = "${obms.users.purge.interval:PT1M}")
+  public void purgeDeletedUsers() {
+    Instant cutoff = Instant.now().minus(retention);
+    long purged = 0;
+    for (int chunks = 0; chunks < maxChunksPerRun; chunks++) {
+      List<Long> ids = userRepository.findIdsDeletedBefore(cutoff, chunkSize);
+      if (ids.isEmpty()) {
+        break;
+      }
+      int deleted = userRepository.purgeAllByIds(ids);
+      purgedUsers.increment(deleted);
+      purged += deleted;
+      if (ids.size() < chunkSize || !pause()) {
+        break;
+      }
+    }
+    if (purged > 0) {
+      log.info("Purged {} soft-deleted bank users", purged);
+    }
+  }
+
+  private boolean pause() {
+    try {
+      Thread.sleep(pause.toMillis());
+      return true;
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+}
@@ -0,0 +1,41 @@
+package de.amehlen.obms.service;
+
+import de.amehlen.obms.exception.InvalidCursorException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor of a user search. Results are ordered by the matched field and id, so the
+ * cursor wraps the position in the list of searched fields together with the value and id of the
+ * last user of a page.
+ */
+record UserSearchCursor(int fieldIndex, String lastValue, long lastId) {
+
+  static final UserSearchCursor START = new UserSearchCursor(0, null, 0L);
+
+  String encode() {
+    String cursor = fieldIndex + ":" + lastId + ":" + lastValue;
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+  }
+
+  static UserSearchCursor decode(String cursor) {
+    if (cursor == null || cursor.isEmpty()) {
+      return START;
+    }
+    try {
+      String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      String[] parts = decoded.split(":", 3);
+      int fieldIndex = Integer.parseInt(parts[0]);
+      long lastId = Long.parseLong(parts[1]);
+      if (fieldIndex < 0 || lastId < 0) {
+        throw new InvalidCursorException("Cursor " + cursor + " is not valid.");
+      }
+      return new UserSearchCursor(fieldIndex, parts[2], lastId);
+    } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException exception) {
+      throw new InvalidCursorException("Cursor " + cursor + " is not valid.");
+    }
+  }
+
+}
@@ -0,0 +1,37 @@
+package de.amehlen.obms.service;
+
+import de.amehlen.obms.model.User;
+import java.util.List;
+import java.util.function.Function;
+
+public enum UserSearchField {
+
+  FIRSTNAME("firstname", User::getFirstname),
+  LASTNAME("lastname", User::getLastname),
+  EMAIL("email", User::getEmail),
+  ANY(null, null);
+
+  private final String attribute;
+  private final Function<User, String> value;
+
+  UserSearchField(String attribute, Function<User, String> value) {
+    this.attribute = attribute;
+    this.value = value;
+  }
+
+  /**
+   * Returns the single fields searched one after another, each one in the order of its index.
+   */
+  public List<UserSearchField> getFields() {
+    return this == ANY ? List.of(FIRSTNAME, LASTNAME, EMAIL) : List.of(this);
+  }
+
+  public String getAttribute() {
+    return attribute;
+  }
+
+  public String valueOf(User user) {
+    return value.apply(user);
+  }
+
+}
@@ -1,82 +1,659 @@
 package de.amehlen.obms.service;
 
+import static de.amehlen.obms.config.CacheConfig.USERS_CACHE;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.amehlen.obms.datasource.ReplicaRoutingDataSource;
+import de.amehlen.obms.dto.request.BulkDeleteUserRequestDTO;
+import de.amehlen.obms.dto.request.UserPatchRequestDTO;
 import de.amehlen.obms.dto.request.UserRequestDTO;
+import de.amehlen.obms.dto.response.BulkDeleteUserResponseDTO;
+import de.amehlen.obms.dto.response.BulkUserItemResponseDTO;
+import de.amehlen.obms.dto.response.BulkUserItemStatus;
+import de.amehlen.obms.dto.response.BulkUserResponseDTO;
+import de.amehlen.obms.dto.response.UserBatchResponseDTO;
+import de.amehlen.obms.dto.response.UserChangeType;
+import de.amehlen.obms.dto.response.UserPageResponseDTO;
 import de.amehlen.obms.dto.response.UserResponseDTO;
+import de.amehlen.obms.exception.BulkRequestTooLargeException;
+import de.amehlen.obms.exception.InvalidSearchQueryException;
 import de.amehlen.obms.exception.UserAlreadyExistException;
 import de.amehlen.obms.exception.UserNotFoundException;
+import de.amehlen.obms.exception.UserVersionMismatchException;
+import de.amehlen.obms.mapper.UserMapper;
 import de.amehlen.obms.model.User;
 import de.amehlen.obms.repository.UserRepository;
+import de.amehlen.obms.repository.UserVersion;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
-import org.modelmapper.ModelMapper;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class UserService {
 
   private static final Logger log = LoggerFactory.getLogger(UserService.class);
+  private static final String USER_SERVICE_TIMER = "obms.user.service";
 
   private final UserRepository userRepository;
-  private final ModelMapper modelMapper;
+  private final UserMapper userMapper;
+  private final EntityManager entityManager;
+  private final ObjectMapper objectMapper;
+  private final Validator validator;
+  private final CacheManager cacheManager;
+  private final UserEmailFilter userEmailFilter;
+  private final UserJsonCache userJsonCache;
+  private final ApplicationEventPublisher eventPublisher;
+  private final int defaultPageSize;
+  private final int maxPageSize;
+  private final int bulkBatchSize;
+  private final int bulkMaxSize;
+  private final int deleteChunkSize;
+  private final boolean softDelete;
+  private final int searchMinPrefixLength;
+  private final int batchMaxSize;
+  private final Duration replicaLagEvictionDelay;
+  private final SingleFlight<Long, UserResponseDTO> userLookups;
 
   @Autowired
-  public UserService(UserRepository userRepository, ModelMapper modelMapper) {
+  public UserService(UserRepository userRepository, UserMapper userMapper,
+      EntityManager entityManager, ObjectMapper objectMapper, Validator validator,
+      CacheManager cacheManager, UserEmailFilter userEmailFilter, UserJsonCache userJsonCache,
+      ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry,
+      @Value("${obms.users.page.default-size:50}") int defaultPageSize,
+      @Value("${obms.users.page.max-size:500}") int maxPageSize,
+      @Value("${obms.users.bulk.batch-size:500}") int bulkBatchSize,
+      @Value("${obms.users.bulk.max-size:50000}") int bulkMaxSize,
+      @Value("${obms.users.delete.chunk-size:1000}") int deleteChunkSize,
+      @Value("${obms.users.delete.soft:false}") boolean softDelete,
+      @Value("${obms.users.search.min-prefix-length:2}") int searchMinPrefixLength,
+      @Value("${obms.users.batch.max-size:100}") int batchMaxSize,
+      @Value("${obms.datasource.replica.enabled:false}") boolean replicaEnabled,
+      @Value("${obms.datasource.read-your-writes-window:5s}") Duration readYourWritesWindow) {
     this.userRepository = userRepository;
-    this.modelMapper = modelMapper;
+    this.userMapper = userMapper;
+    this.entityManager = entityManager;
+    this.objectMapper = objectMapper;
+    this.validator = validator;
+    this.cacheManager = cacheManager;
+    this.userEmailFilter = userEmailFilter;
+    this.userJsonCache = userJsonCache;
+    this.eventPublisher = eventPublisher;
+    this.defaultPageSize = defaultPageSize;
+    this.maxPageSize = maxPageSize;
+    this.bulkBatchSize = bulkBatchSize;
+    this.bulkMaxSize = bulkMaxSize;
+    this.deleteChunkSize = deleteChunkSize;
+    this.softDelete = softDelete;
+    this.searchMinPrefixLength = searchMinPrefixLength;
+    this.batchMaxSize = batchMaxSize;
+    this.replicaLagEvictionDelay = replicaEnabled ? readYourWritesWindow : Duration.ZERO;
+    this.userLookups = new SingleFlight<>(meterRegistry, "obms.user.lookups");
   }
 
-  public List<UserResponseDTO> getAllUsers() {
-    log.info("Load all bank users from database");
-    return userRepository
-        .findAll()
+  @Timed(USER_SERVICE_TIMER)
+  @Transactional(readOnly = true)
+  public UserPageResponseDTO getAllUsers(String cursor, Integer limit) {
+    long afterId = UserCursor.decode(cursor);
+    int pageSize = resolvePageSize(limit);
+    log.debug("Load up to {} bank users after id {} from database", pageSize, afterId);
+    // one extra row tells whether another page follows without issuing a count query
+    List<User> users = userRepository
+        .findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, pageSize + 1));
+    boolean hasNext = users.size() > pageSize;
+    List<UserResponseDTO> page = users
         .stream()
-        .map(user -> modelMapper.map(user, UserResponseDTO.class))
+        .limit(pageSize)
+        .map(userMapper::toResponseDTO)
         .toList();
+    return UserPageResponseDTO.builder()
+        .withUsers(page)
+        .withNextCursor(hasNext ? UserCursor.encode(page.get(page.size() - 1).getId()) : null)
+        .build();
   }
 
+  /**
+   * Finds users by the prefix of their firstname, lastname, email or any of them. Matches are
+   * ordered by the matched field and id; a search over any field lists the firstname matches
+   * first, then the remaining lastname and email matches. Case sensitivity follows the collation
+   * of the columns.
+   */
+  @Timed(USER_SERVICE_TIMER)
+  @Transactional(readOnly = true)
+  public UserPageResponseDTO searchUsers(String query, UserSearchField field, String cursor,
+      Integer limit) {
+    String prefix = query == null ? "" : query.strip();
+    if (prefix.length() < searchMinPrefixLength) {
+      throw new InvalidSearchQueryException("Search query must have at least "
+          + searchMinPrefixLength + " characters.");
+    }
+    UserSearchCursor position = UserSearchCursor.decode(cursor);
+    int pageSize = resolvePageSize(limit);
+    log.debug("Search up to {} bank users by {} prefix {} after {}", pageSize, field, prefix,
+        position);
+    List<UserSearchField> fields = field.getFields();
+    List<User> users = new ArrayList<>();
+    List<Integer> fieldIndexes = new ArrayList<>();
+    int fieldIndex = position.fieldIndex();
+    String afterValue = position.lastValue();
+    long afterId = position.lastId();
+    // one extra row tells whether another page follows, continue with the next field if short
+    while (fieldIndex < fields.size() && users.size() <= pageSize) {
+      int requested = pageSize + 1 - users.size();
+      List<String> excludedAttributes = fields
+          .subList(0, fieldIndex)
+          .stream()
+          .map(UserSearchField::getAttribute)
+          .toList();
+      List<User> found = userRepository.findByPrefix(fields.get(fieldIndex).getAttribute(),
+          prefix, excludedAttributes, afterValue, afterId, requested);
+      users.addAll(found);
+      for (int i = 0; i < found.size(); i++) {
+        fieldIndexes.add(fieldIndex);
+      }
+      if (found.size() == requested) {
+        break;
+      }
+      fieldIndex++;
+      afterValue = null;
+      afterId = 0;
+    }
+    boolean hasNext = users.size() > pageSize;
+    List<UserResponseDTO> page = users
+        .stream()
+        .limit(pageSize)
+        .map(userMapper::toResponseDTO)
+        .toList();
+    String nextCursor = null;
+    if (hasNext) {
+      User last = users.get(pageSize - 1);
+      int lastFieldIndex = fieldIndexes.get(pageSize - 1);
+      nextCursor = new UserSearchCursor(lastFieldIndex,
+          fields.get(lastFieldIndex).valueOf(last), last.getId()).encode();
+    }
+    return UserPageResponseDTO.builder()
+        .withUsers(page)
+        .withNextCursor(nextCursor)
+        .build();
+  }
+
+  @Timed(USER_SERVICE_TIMER)
+  @Transactional(readOnly = true)
+  public long exportUsers(OutputStream outputStream, UserExportFormat format) throws IOException {
+    log.info("Export all bank users as {}", format);
+    long start = System.nanoTime();
+    long rows = 0;
+    UserExportWriter writer = UserExportWriter.create(format, outputStream, objectMapper);
+    try (Stream<User> users = userRepository.streamAllByOrderByIdAsc()) {
+      for (User user : (Iterable<User>) users::iterator) {
+        writer.write(userMapper.toResponseDTO(user));
+        // exported rows must not pile up in the persistence context
+        entityManager.detach(user);
+        rows++;
+      }
+    }
+    writer.flush();
+    long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    log.info("Exported {} bank users as {} in {} ms ({} rows/s)", rows, format, elapsedMillis,
+        rows * 1000 / elapsedMillis);
+    return rows;
+  }
+
+  /**
+   * Loads a user on a cache miss. Concurrent misses for the same id share one query; the query
+   * runs in its own read-only transaction so that waiting callers hold no connection. Requests
+   * that read their own writes bypass the cache, which a read from the lagging replica may have
+   * filled with the state before the write, and load the user themselves, since a lookup in
+   * flight may have read the replica or started before their write committed.
+   */
+  @Timed(USER_SERVICE_TIMER)
+  @Cacheable(cacheNames = USERS_CACHE, key = "#id", condition = "!T(de.amehlen.obms.datasource"
+      + ".ReplicaRoutingDataSource).isPrimaryRequired()")
   public UserResponseDTO getUserById(Long id) {
-    log.info("Load bank user with id {} from database", id);
+    if (ReplicaRoutingDataSource.isPrimaryRequired()) {
+      return loadUser(id);
+    }
+    return userLookups.execute(id, () -> loadUser(id));
+  }
+
+  /**
+   * Returns the users with the given ids in the order of the ids, each id once. Cached users are
+   * taken from the cache and the others are loaded with a single query and cached.
+   */
+  @Timed(USER_SERVICE_TIMER)
+  public UserBatchResponseDTO getUsersByIds(List<Long> ids) {
+    List<Long> distinctIds = ids
+        .stream()
+        .filter(Objects::nonNull)
+        .distinct()
+        .toList();
+    if (distinctIds.size() > batchMaxSize) {
+      throw new BulkRequestTooLargeException("Batch lookup of " + distinctIds.size()
+          + " users exceeds the limit of " + batchMaxSize + " users.");
+    }
+    Cache cache = readableUsersCache();
+    Map<Long, UserResponseDTO> users = new HashMap<>();
+    List<Long> uncachedIds = new ArrayList<>();
+    for (Long id : distinctIds) {
+      UserResponseDTO cachedUser = cache == null ? null : cache.get(id, UserResponseDTO.class);
+      if (cachedUser != null) {
+        users.put(id, cachedUser);
+      } else {
+        uncachedIds.add(id);
+      }
+    }
+    if (!uncachedIds.isEmpty()) {
+      log.debug("Load {} of {} bank users from database", uncachedIds.size(), distinctIds.size());
+      for (User user : userRepository.findAllById(uncachedIds)) {
+        UserResponseDTO userResponseDTO = userMapper.toResponseDTO(user);
+        users.put(user.getId(), userResponseDTO);
+        if (cache != null) {
+          cache.put(user.getId(), userResponseDTO);
+        }
+      }
+    }
+    return UserBatchResponseDTO.builder()
+        .withUsers(distinctIds.stream().map(users::get).filter(Objects::nonNull).toList())
+        .withMissingIds(distinctIds.stream().filter(id -> !users.containsKey(id)).toList())
+        .build();
+  }
+
+  /**
+   * Returns version and modification time of a user, from the cache if it holds the user and
+   * otherwise with a query that does not load the whole entity.
+   */
+  @Timed(USER_SERVICE_TIMER)
+  public UserVersion getUserVersion(Long id) {
+    Cache cache = readableUsersCache();
+    UserResponseDTO cachedUser = cache == null ? null : cache.get(id, UserResponseDTO.class);
+    if (cachedUser != null) {
+      return new CachedUserVersion(cachedUser.getVersion(), cachedUser.getLastModified());
+    }
     return userRepository
-        .findById(id)
-        .map(user -> modelMapper.map(user, UserResponseDTO.class))
+        .findVersionById(id)
         .orElseThrow(() -> new UserNotFoundException("User with id " + id + " not found."));
   }
 
+  @Timed(USER_SERVICE_TIMER)
+  @CachePut(cacheNames = USERS_CACHE, key = "#result.id")
   public UserResponseDTO createNewUser(UserRequestDTO userRequestDTO) {
-    log.info("Create new bank user {}", userRequestDTO);
-    Optional<User> userOptional = userRepository.findUserByEmail(userRequestDTO.getEmail());
-    if (userOptional.isPresent()) {
-      log.info("Bank user with email {} already exist", userRequestDTO.getEmail());
-      throw new UserAlreadyExistException(
-          "User with email " + userRequestDTO.getEmail() + " already exist.");
+    log.debug("Create new bank user {}", userRequestDTO);
+    User newUser = userMapper.toEntity(userRequestDTO);
+    // the unique email constraint decides about duplicates, so a signup is a single insert
+    saveAndFlushUniqueEmail(newUser);
+    publishChange(UserChangeType.CREATED, List.of(newUser.getId()));
+    log.info("New bank user with id {} saved to database", newUser.getId());
+    return userMapper.toResponseDTO(newUser);
+  }
+
+  @Timed(USER_SERVICE_TIMER)
+  public BulkUserResponseDTO createNewUsers(List<UserRequestDTO> userRequestDTOs) {
+    if (userRequestDTOs.size() > bulkMaxSize) {
+      throw new BulkRequestTooLargeException("Bulk request with " + userRequestDTOs.size()
+          + " users exceeds the limit of " + bulkMaxSize + " users.");
+    }
+    log.info("Create {} new bank users in bulk", userRequestDTOs.size());
+    BulkUserItemResponseDTO[] results = new BulkUserItemResponseDTO[userRequestDTOs.size()];
+    // normalized email -> index of the first valid item using it
+    Map<String, Integer> candidates = new LinkedHashMap<>();
+    for (int index = 0; index < userRequestDTOs.size(); index++) {
+      UserRequestDTO userRequestDTO = userRequestDTOs.get(index);
+      String violations = validate(userRequestDTO);
+      if (violations != null) {
+        results[index] = bulkItem(index, BulkUserItemStatus.INVALID, null, violations);
+      } else if (candidates.putIfAbsent(normalizeEmail(userRequestDTO.getEmail()), index) != null) {
+        results[index] = bulkConflict(index, userRequestDTO.getEmail());
+      }
     }
-    User newUser = modelMapper.map(userRequestDTO, User.class);
-    userRepository.save(newUser);
-    log.info("New user saved to database {}", newUser);
-    return modelMapper.map(newUser, UserResponseDTO.class);
+    for (List<Integer> chunk : partition(new ArrayList<>(candidates.values()), bulkBatchSize)) {
+      // only emails the filter cannot rule out need the database lookup
+      List<String> emails = chunk
+          .stream()
+          .map(index -> userRequestDTOs.get(index).getEmail())
+          .filter(userEmailFilter::mightExist)
+          .toList();
+      if (emails.isEmpty()) {
+        continue;
+      }
+      for (String existingEmail : userRepository.findExistingEmails(emails)) {
+        Integer index = candidates.remove(normalizeEmail(existingEmail));
+        if (index != null) {
+          results[index] = bulkConflict(index, existingEmail);
+        }
+      }
+    }
+    for (List<Integer> chunk : partition(new ArrayList<>(candidates.values()), bulkBatchSize)) {
+      insertBulkChunk(userRequestDTOs, chunk, results);
+    }
+    Map<BulkUserItemStatus, Long> counts = Arrays
+        .stream(results)
+        .collect(Collectors.groupingBy(BulkUserItemResponseDTO::getStatus, Collectors.counting()));
+    log.info("Bulk creation finished with {}", counts);
+    return BulkUserResponseDTO.builder()
+        .withCreated(counts.getOrDefault(BulkUserItemStatus.CREATED, 0L).intValue())
+        .withConflicts(counts.getOrDefault(BulkUserItemStatus.CONFLICT, 0L).intValue())
+        .withInvalid(counts.getOrDefault(BulkUserItemStatus.INVALID, 0L).intValue())
+        .withResults(Arrays.asList(results))
+        .build();
   }
 
-  public UserResponseDTO updateUser(Long id, UserRequestDTO userRequestDTO) {
+  @Timed(USER_SERVICE_TIMER)
+  @CacheEvict(cacheNames = USERS_CACHE, key = "#id")
+  public UserResponseDTO updateUser(Long id, UserRequestDTO userRequestDTO,
+      Long expectedVersion) {
     User userOptional = userRepository
         .findById(id)
         .orElseThrow(() -> {
           log.info("Bank user with id {} not found in database", id);
           return new UserNotFoundException("User with id " + id + " not found.");
         });
+    if (expectedVersion != null && !expectedVersion.equals(userOptional.getVersion())) {
+      throw versionMismatch(id);
+    }
     userOptional.setFirstname(userRequestDTO.getFirstname());
     userOptional.setLastname(userRequestDTO.getLastname());
     userOptional.setEmail(userRequestDTO.getEmail());
-    userRepository.save(userOptional);
-    UserResponseDTO userResponseDTO = modelMapper.map(userOptional, UserResponseDTO.class);
-    log.info("Bank user updated in database {}", userResponseDTO);
+    User updatedUser;
+    try {
+      updatedUser = saveAndFlushUniqueEmail(userOptional);
+    } catch (ObjectOptimisticLockingFailureException exception) {
+      throw versionMismatch(id);
+    }
+    UserResponseDTO userResponseDTO = userMapper.toResponseDTO(updatedUser);
+    evictAfterReplicaLag(List.of(id));
+    publishChange(UserChangeType.UPDATED, List.of(id));
+    log.info("Bank user with id {} updated in database", id);
     return userResponseDTO;
   }
 
+  /**
+   * Changes only the fields set in the patch, with one update statement and without reading the
+   * user first. The affected row count tells whether the user exists.
+   */
+  @Timed(USER_SERVICE_TIMER)
+  @CacheEvict(cacheNames = USERS_CACHE, key = "#id")
+  public void patchUser(Long id, UserPatchRequestDTO userPatchRequestDTO, Long expectedVersion) {
+    Map<String, Object> attributes = new LinkedHashMap<>();
+    if (userPatchRequestDTO.getFirstname() != null) {
+      attributes.put("firstname", userPatchRequestDTO.getFirstname());
+    }
+    if (userPatchRequestDTO.getLastname() != null) {
+      attributes.put("lastname", userPatchRequestDTO.getLastname());
+    }
+    if (userPatchRequestDTO.getEmail() != null) {
+      attributes.put("email", userPatchRequestDTO.getEmail());
+    }
+    if (attributes.isEmpty()) {
+      if (!userRepository.existsById(id)) {
+        throw new UserNotFoundException("User with id " + id + " not found.");
+      }
+      return;
+    }
+    int updatedRows;
+    try {
+      updatedRows = userRepository.updateAttributesById(id, attributes, expectedVersion);
+    } catch (DataIntegrityViolationException exception) {
+      log.info("Bank user with email {} already exist", userPatchRequestDTO.getEmail());
+      throw new UserAlreadyExistException(
+          "User with email " + userPatchRequestDTO.getEmail() + " already exist.");
+    }
+    if (updatedRows == 0) {
+      // only a failed precondition needs a second look to tell a stale version from a missing user
+      if (expectedVersion != null && userRepository.existsById(id)) {
+        throw versionMismatch(id);
+      }
+      log.info("Bank user with id {} not found in database", id);
+      throw new UserNotFoundException("User with id " + id + " not found.");
+    }
+    if (userPatchRequestDTO.getEmail() != null) {
+      userEmailFilter.add(userPatchRequestDTO.getEmail());
+    }
+    evictAfterReplicaLag(List.of(id));
+    publishChange(UserChangeType.UPDATED, List.of(id));
+    log.info("Bank user with id {} patched in database", id);
+  }
+
+  @Timed(USER_SERVICE_TIMER)
+  @CacheEvict(cacheNames = USERS_CACHE, key = "#id")
   public void deleteUser(Long id) {
     log.info("Delete bank user with id {}", id);
-    userRepository.deleteById(id);
+    if (deleteChunk(List.of(id)) == 0) {
+      log.info("Bank user with id {} not found in database", id);
+      throw new UserNotFoundException("User with id " + id + " not found.");
+    }
+  }
+
+  /**
+   * Deletes the selected users with set-based statements in chunks of
+   * {@code obms.users.delete.chunk-size}, each in its own transaction so locks are held briefly.
+   */
+  @Timed(USER_SERVICE_TIMER)
+  public BulkDeleteUserResponseDTO deleteUsers(BulkDeleteUserRequestDTO bulkDeleteUserRequestDTO) {
+    long deleted = 0;
+    if (bulkDeleteUserRequestDTO.getIds() != null) {
+      List<Long> ids = bulkDeleteUserRequestDTO.getIds().stream().distinct().toList();
+      if (ids.size() > bulkMaxSize) {
+        throw new BulkRequestTooLargeException("Bulk delete with " + ids.size()
+            + " users exceeds the limit of " + bulkMaxSize + " users.");
+      }
+      log.info("Delete {} bank users in bulk", ids.size());
+      for (List<Long> chunk : partition(ids, deleteChunkSize)) {
+        deleted += deleteChunk(chunk);
+      }
+    } else {
+      Instant before = bulkDeleteUserRequestDTO.getLastModifiedBefore();
+      log.info("Delete bank users last modified before {} in bulk", before);
+      long afterId = 0;
+      List<Long> chunk;
+      do {
+        chunk = userRepository.findIdsModifiedBefore(before, afterId,
+            PageRequest.of(0, deleteChunkSize));
+        if (!chunk.isEmpty()) {
+          deleted += deleteChunk(chunk);
+          afterId = chunk.get(chunk.size() - 1);
+        }
+      } while (chunk.size() == deleteChunkSize);
+    }
+    log.info("Bulk deletion removed {} bank users", deleted);
+    return BulkDeleteUserResponseDTO.builder()
+        .withDeleted(deleted)
+        .withSoft(softDelete)
+        .build();
+  }
+
+  private User saveAndFlushUniqueEmail(User user) {
+    try {
+      User savedUser = userRepository.saveAndFlush(user);
+      userEmailFilter.add(savedUser.getEmail());
+      return savedUser;
+    } catch (DataIntegrityViolationException exception) {
+      log.info("Bank user with email {} already exist", user.getEmail());
+      throw new UserAlreadyExistException(
+          "User with email " + user.getEmail() + " already exist.");
+    }
+  }
+
+  private int deleteChunk(List<Long> ids) {
+    List<Long> deletedIds = userRepository.deleteExistingByIds(ids,
+        softDelete ? Instant.now() : null);
+    Cache cache = cacheManager.getCache(USERS_CACHE);
+    if (cache != null) {
+      ids.forEach(cache::evict);
+    }
+    userJsonCache.evict(ids);
+    evictAfterReplicaLag(ids);
+    if (!deletedIds.isEmpty()) {
+      publishChange(UserChangeType.DELETED, deletedIds);
+    }
+    return deletedIds.size();
+  }
+
+  private void publishChange(UserChangeType type, List<Long> ids) {
+    eventPublisher.publishEvent(new UserChangedEvent(type, List.copyOf(ids)));
+  }
+
+  private UserResponseDTO loadUser(Long id) {
+    log.debug("Load bank user with id {} from database", id);
+    return userRepository
+        .findById(id)
+        .map(userMapper::toResponseDTO)
+        .orElseThrow(() -> new UserNotFoundException("User with id " + id + " not found."));
+  }
+
+  /**
+   * Returns the users cache, or {@code null} for requests that read their own writes from the
+   * primary and must not see a state cached from the lagging replica.
+   */
+  private Cache readableUsersCache() {
+    return ReplicaRoutingDataSource.isPrimaryRequired() ? null : cacheManager.getCache(USERS_CACHE);
+  }
+
+  /**
+   * Evicts the users once more after the replica caught up. A read from the lagging replica may
+   * have put the old state back into the cache right after the write evicted it.
+   */
+  private void evictAfterReplicaLag(List<Long> ids) {
+    Cache cache = cacheManager.getCache(USERS_CACHE);
+    if (cache == null || replicaLagEvictionDelay.isZero()) {
+      return;
+    }
+    List<Long> evictedIds = List.copyOf(ids);
+    CompletableFuture
+        .delayedExecutor(replicaLagEvictionDelay.toMillis(), TimeUnit.MILLISECONDS)
+        .execute(() -> evictedIds.forEach(cache::evict));
+  }
+
+  private void insertBulkChunk(List<UserRequestDTO> userRequestDTOs, List<Integer> chunk,
+      BulkUserItemResponseDTO[] results) {
+    List<User> users = chunk
+        .stream()
+        .map(index -> userMapper.toEntity(userRequestDTOs.get(index)))
+        .toList();
+    try {
+      // one transaction per chunk, the inserts are sent as JDBC batches on commit
+      userRepository.saveAll(users);
+      users.forEach(user -> userEmailFilter.add(user.getEmail()));
+      publishChange(UserChangeType.CREATED, users.stream().map(User::getId).toList());
+      for (int i = 0; i < chunk.size(); i++) {
+        results[chunk.get(i)] = bulkItem(chunk.get(i), BulkUserItemStatus.CREATED,
+            userMapper.toResponseDTO(users.get(i)), null);
+      }
+    } catch (DataIntegrityViolationException exception) {
+      log.info("Bulk chunk of {} bank users clashed with a concurrent signup, retry one by one",
+          chunk.size());
+      for (Integer index : chunk) {
+        User user = userMapper.toEntity(userRequestDTOs.get(index));
+        try {
+          saveAndFlushUniqueEmail(user);
+          publishChange(UserChangeType.CREATED, List.of(user.getId()));
+          results[index] = bulkItem(index, BulkUserItemStatus.CREATED,
+              userMapper.toResponseDTO(user), null);
+        } catch (UserAlreadyExistException alreadyExistException) {
+          results[index] = bulkConflict(index, user.getEmail());
+        }
+      }
+    }
+  }
+
+  private String validate(UserRequestDTO userRequestDTO) {
+    if (userRequestDTO == null) {
+      return "The user may not be empty";
+    }
+    Set<ConstraintViolation<UserRequestDTO>> violations = validator.validate(userRequestDTO);
+    if (violations.isEmpty()) {
+      return null;
+    }
+    return violations
+        .stream()
+        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+        .sorted()
+        .collect(Collectors.joining(", "));
+  }
+
+  private static BulkUserItemResponseDTO bulkConflict(int index, String email) {
+    return bulkItem(index, BulkUserItemStatus.CONFLICT, null,
+        "User with email " + email + " already exist.");
+  }
+
+  private static BulkUserItemResponseDTO bulkItem(int index, BulkUserItemStatus status,
+      UserResponseDTO user, String message) {
+    return BulkUserItemResponseDTO.builder()
+        .withIndex(index)
+        .withStatus(status)
+        .withUser(user)
+        .withMessage(message)
+        .build();
+  }
+
+  private static String normalizeEmail(String email) {
+    return email.toLowerCase(Locale.ROOT);
+  }
+
+  private static <T> List<List<T>> partition(List<T> items, int size) {
+    List<List<T>> chunks = new ArrayList<>();
+    for (int from = 0; from < items.size(); from += size) {
+      chunks.add(items.subList(from, Math.min(from + size, items.size())));
+    }
+    return chunks;
+  }
+
+  private static UserVersionMismatchException versionMismatch(Long id) {
+    log.info("Bank user with id {} was modified concurrently", id);
+    return new UserVersionMismatchException(
+        "User with id " + id + " was modified by another request.");
+  }
+
+  private int resolvePageSize(Integer limit) {
+    if (limit == null || limit < 1) {
+      return defaultPageSize;
+    }
+    return Math.min(limit, maxPageSize);
+  }
+
+  private record CachedUserVersion(Long version, Instant lastModified) implements UserVersion {
+
+    @Override
+    public Long getVersion() {
+      return version;
+    }
+
+    @Override
+    public Instant getLastModified() {
+      return lastModified;
+    }
+
   }
 }
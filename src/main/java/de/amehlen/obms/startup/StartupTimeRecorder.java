@@ -0,0 +1,66 @@
+package de.amehlen.obms.startup;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.support.ServletRequestHandledEvent;
+
+/**
+ * Records how long after JVM start the first request was answered, which includes the lazy
+ * initialization left over by the production profile, as {@code obms.startup.first-request}.
+ *
+ * <p>With {@code obms.startup.exit-when-ready} the application shuts down as soon as it is
+ * ready. This is the training run that writes a class data sharing archive, see the README.
+ */
+@Component
+@Lazy(false)
+public class StartupTimeRecorder {
+
+  private static final Logger log = LoggerFactory.getLogger(StartupTimeRecorder.class);
+
+  private final AtomicBoolean firstRequestSeen = new AtomicBoolean();
+  private final AtomicLong firstRequestMillis = new AtomicLong(-1);
+  private final boolean exitWhenReady;
+
+  public StartupTimeRecorder(MeterRegistry meterRegistry,
+      @Value("${obms.startup.exit-when-ready:false}") boolean exitWhenReady) {
+    this.exitWhenReady = exitWhenReady;
+    TimeGauge
+        .builder("obms.startup.first-request", firstRequestMillis, TimeUnit.MILLISECONDS,
+            AtomicLong::get)
+        .description("Time from JVM start until the first request was answered")
+        .register(meterRegistry);
+  }
+
+  @EventListener
+  public void onApplicationReady(ApplicationReadyEvent event) {
+    log.info("Ready to serve requests {} ms after JVM start", uptimeMillis());
+    if (exitWhenReady) {
+      System.exit(SpringApplication.exit(event.getApplicationContext()));
+    }
+  }
+
+  @EventListener
+  public void onRequestHandled(ServletRequestHandledEvent event) {
+    if (!firstRequestSeen.get() && firstRequestSeen.compareAndSet(false, true)) {
+      firstRequestMillis.set(uptimeMillis());
+      log.info("Answered the first request {} ms after JVM start", firstRequestMillis.get());
+    }
+  }
+
+  private static long uptimeMillis() {
+    return ManagementFactory.getRuntimeMXBean().getUptime();
+  }
+
+}
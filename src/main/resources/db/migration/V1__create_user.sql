@@ -0,0 +1,21 @@
+create table user (
+  id bigint not null,
+  deleted_at datetime(6),
+  email varchar(255),
+  firstname varchar(255),
+  last_modified datetime(6),
+  lastname varchar(255),
+  version bigint,
+  primary key (id)
+) engine=InnoDB;
+
+create table user_seq (
+  next_val bigint
+) engine=InnoDB;
+
+insert into user_seq values (1);
+
+create index idx_user_deleted_at on user (deleted_at);
+create index idx_user_firstname on user (firstname, id);
+create index idx_user_lastname on user (lastname, id);
+alter table user add constraint uk_user_email unique (email);
@@ -0,0 +1,53 @@
+package de.amehlen.obms.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import de.amehlen.obms.dto.response.UserResponseDTO;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Creates the schema like the prod profile does, with the Flyway migrations written for MySQL and
+ * the MySQL dialect validating it, on H2 in MySQL mode.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:obms_prod_schema;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "spring.datasource.username=sa",
+    "spring.datasource.password="
+})
+@ActiveProfiles(profiles = "prod", inheritProfiles = false)
+public class ProdSchemaMigrationTest extends UserIntegrationTest {
+
+  @Autowired
+  private Flyway flyway;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Test
+  @DisplayName("Should migrate a schema that Hibernate validates and that stores users")
+  void shouldMigrateASchemaThatHibernateValidatesAndThatStoresUsers() {
+    UserResponseDTO max = userService.createNewUser(userRequest("max@mustermann.de"));
+    UserResponseDTO erika = userService.createNewUser(userRequest("erika@mustermann.de"));
+
+    assertEquals("1", flyway.info().current().getVersion().getVersion());
+    assertEquals(max.getId() + 1, erika.getId());
+    assertEquals("erika@mustermann.de", userService.getUserById(erika.getId()).getEmail());
+  }
+
+  @Test
+  @DisplayName("Should create the indexes of the user entity")
+  void shouldCreateTheIndexesOfTheUserEntity() {
+    for (String index : new String[] {"IDX_USER_DELETED_AT", "IDX_USER_FIRSTNAME",
+        "IDX_USER_LASTNAME"}) {
+      assertEquals(1, jdbcTemplate.queryForObject("select count(distinct index_name)"
+          + " from information_schema.indexes where index_name = ?", Long.class, index), index);
+    }
+  }
+
+}
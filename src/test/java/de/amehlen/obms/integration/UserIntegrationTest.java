@@ -0,0 +1,50 @@
+package de.amehlen.obms.integration;
+
+import static de.amehlen.obms.config.CacheConfig.USERS_CACHE;
+
+import de.amehlen.obms.dto.request.UserRequestDTO;
+import de.amehlen.obms.repository.UserRepository;
+import de.amehlen.obms.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Runs a test against the application with the test profile and removes all users and cached
+ * users after each test. Tests that need other properties declare their own
+ * {@link SpringBootTest}.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+abstract class UserIntegrationTest {
+
+  @Autowired
+  protected UserService userService;
+
+  @Autowired
+  protected UserRepository userRepository;
+
+  @Autowired
+  protected CacheManager cacheManager;
+
+  @AfterEach
+  void deleteAllUsers() {
+    userRepository.deleteAll();
+    cacheManager.getCache(USERS_CACHE).clear();
+  }
+
+  static UserRequestDTO userRequest(String email) {
+    return userRequest("Max", "Mustermann", email);
+  }
+
+  static UserRequestDTO userRequest(String firstname, String lastname, String email) {
+    return UserRequestDTO.builder()
+        .withFirstname(firstname)
+        .withLastname(lastname)
+        .withEmail(email)
+        .build();
+  }
+
+}
@@ -0,0 +1,106 @@
+package de.amehlen.obms.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.amehlen.obms.dto.response.UserResponseDTO;
+import de.amehlen.obms.interceptor.ReadYourWritesInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import javax.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:obms_ryw_primary;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "obms.datasource.replica.enabled=true",
+    "obms.datasource.replica.url=" + UserReadYourWritesTest.REPLICA_URL,
+    "obms.datasource.replica.username=sa",
+    "obms.datasource.replica.password=",
+    "obms.datasource.replica.hikari.connection-init-sql=" + UserReadYourWritesTest.LINK_PRIMARY
+})
+@AutoConfigureMockMvc
+public class UserReadYourWritesTest extends UserIntegrationTest {
+
+  static final String REPLICA_URL = "jdbc:h2:mem:obms_ryw_replica;MODE=MySQL;DB_CLOSE_DELAY=-1";
+  static final String LINK_PRIMARY = "CREATE LINKED TABLE IF NOT EXISTS "
+      + "user('org.h2.Driver', 'jdbc:h2:mem:obms_ryw_primary', 'sa', '', 'USER') READONLY";
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @AfterEach
+  void tearDown() throws SQLException {
+    replicate("DROP TABLE user", LINK_PRIMARY);
+  }
+
+  @Test
+  @DisplayName("Should read the own write although another client cached a stale replica read")
+  void shouldReadTheOwnWriteAlthoughAnotherClientCachedAStaleReplicaRead() throws Exception {
+    UserResponseDTO max = userService.createNewUser(userRequest("max@mustermann.de"));
+    // the replica keeps the current users and stops following the primary
+    replicate("CREATE TABLE user_snapshot AS SELECT * FROM user", "DROP TABLE user",
+        "ALTER TABLE user_snapshot RENAME TO user");
+
+    Cookie readPrimary = mockMvc.perform(put("/users/" + max.getId())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(userRequest("moritz@mustermann.de"))))
+        .andExpect(status().isOk())
+        .andReturn()
+        .getResponse()
+        .getCookie(ReadYourWritesInterceptor.COOKIE_NAME);
+    mockMvc.perform(get("/users/" + max.getId()))
+        .andExpect(jsonPath("$.email").value("max@mustermann.de"));
+
+    mockMvc.perform(get("/users/" + max.getId()).cookie(readPrimary))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.email").value("moritz@mustermann.de"));
+  }
+
+  @Test
+  @DisplayName("Should not share a lookup in flight with a request that reads its own writes")
+  void shouldNotShareALookupInFlightWithARequestThatReadsItsOwnWrites() throws Exception {
+    UserResponseDTO max = userService.createNewUser(userRequest("max@mustermann.de"));
+    cacheManager.getCache("users").clear();
+    double lookups = lookups("fetched") + lookups("coalesced");
+
+    mockMvc.perform(get("/users/" + max.getId())
+            .cookie(new Cookie(ReadYourWritesInterceptor.COOKIE_NAME, "1")))
+        .andExpect(jsonPath("$.email").value("max@mustermann.de"));
+
+    assertEquals(lookups, lookups("fetched") + lookups("coalesced"));
+  }
+
+  private double lookups(String result) {
+    return meterRegistry.get("obms.user.lookups").tag("result", result).counter().count();
+  }
+
+  private static void replicate(String... statements) throws SQLException {
+    try (Connection connection = DriverManager.getConnection(REPLICA_URL, "sa", "");
+        Statement statement = connection.createStatement()) {
+      for (String sql : statements) {
+        statement.execute(sql);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,46 @@
+package de.amehlen.obms.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import de.amehlen.obms.dto.response.UserBatchResponseDTO;
+import de.amehlen.obms.dto.response.UserResponseDTO;
+import de.amehlen.obms.exception.BulkRequestTooLargeException;
+import java.util.List;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(properties = "obms.users.batch.max-size=5")
+public class UserServiceBatchTest extends UserIntegrationTest {
+
+  @Test
+  @DisplayName("Should return the users in the requested order and list the missing ids")
+  void shouldReturnTheUsersInTheRequestedOrderAndListTheMissingIds() {
+    UserResponseDTO max = userService.createNewUser(userRequest("max@mustermann.de"));
+    UserResponseDTO erika = userService.createNewUser(userRequest("erika@mustermann.de"));
+    UserResponseDTO julia = userService.createNewUser(userRequest("julia@musterfrau.de"));
+    cacheManager.getCache("users").clear();
+    userService.getUserById(julia.getId());
+    long missingId = julia.getId() + 1000;
+
+    UserBatchResponseDTO batch = userService.getUsersByIds(
+        List.of(julia.getId(), missingId, max.getId(), julia.getId(), erika.getId()));
+
+    assertEquals(List.of(julia.getId(), max.getId(), erika.getId()),
+        batch.getUsers().stream().map(UserResponseDTO::getId).toList());
+    assertEquals(List.of(missingId), batch.getMissingIds());
+    assertNotNull(cacheManager.getCache("users").get(max.getId()));
+  }
+
+  @Test
+  @DisplayName("Should reject a batch lookup above the limit")
+  void shouldRejectABatchLookupAboveTheLimit() {
+    List<Long> ids = LongStream.rangeClosed(1, 6).boxed().toList();
+
+    assertThrows(BulkRequestTooLargeException.class, () -> userService.getUsersByIds(ids));
+  }
+
+}
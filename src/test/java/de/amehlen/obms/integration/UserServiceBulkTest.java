@@ -0,0 +1,60 @@
+package de.amehlen.obms.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.amehlen.obms.dto.response.BulkUserItemStatus;
+import de.amehlen.obms.dto.response.BulkUserResponseDTO;
+import de.amehlen.obms.service.UserEmailFilter;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+public class UserServiceBulkTest extends UserIntegrationTest {
+
+  @Autowired
+  private UserEmailFilter userEmailFilter;
+
+  @Test
+  @DisplayName("Should create valid users and report conflicts and invalid items")
+  void shouldCreateValidUsersAndReportConflictsAndInvalidItems() {
+    userService.createNewUser(userRequest("Erika", "Mustermann", "erika@mustermann.de"));
+
+    BulkUserResponseDTO result = userService.createNewUsers(List.of(
+        userRequest("Max", "Mustermann", "max@mustermann.de"),
+        userRequest("Erika", "Mustermann", "erika@mustermann.de"),
+        userRequest("Julia", "Mustermann", "no-email"),
+        userRequest("Max", "Mustermann", "max@mustermann.de"),
+        userRequest("Julia", "Mustermann", "julia@musterfrau.de")));
+
+    assertEquals(2, result.getCreated());
+    assertEquals(2, result.getConflicts());
+    assertEquals(1, result.getInvalid());
+    assertEquals(BulkUserItemStatus.CREATED, result.getResults().get(0).getStatus());
+    assertNotNull(result.getResults().get(0).getUser().getId());
+    assertEquals(BulkUserItemStatus.CONFLICT, result.getResults().get(1).getStatus());
+    assertEquals(BulkUserItemStatus.INVALID, result.getResults().get(2).getStatus());
+    assertEquals(BulkUserItemStatus.CONFLICT, result.getResults().get(3).getStatus());
+    assertEquals(BulkUserItemStatus.CREATED, result.getResults().get(4).getStatus());
+    assertEquals(3, userRepository.count());
+  }
+
+  @Test
+  @DisplayName("Should add the emails of created users to the email filter")
+  void shouldAddTheEmailsOfCreatedUsersToTheEmailFilter() {
+    assertFalse(userEmailFilter.mightExist("paula@musterfrau.de"));
+
+    userService.createNewUsers(List.of(userRequest("Paula", "Mustermann", "paula@musterfrau.de")));
+    userService.createNewUser(userRequest("Erik", "Mustermann", "erik@mustermann.de"));
+
+    assertTrue(userEmailFilter.mightExist("Paula@Musterfrau.de"));
+    assertTrue(userEmailFilter.mightExist("erik@mustermann.de"));
+    assertEquals(BulkUserItemStatus.CONFLICT, userService
+        .createNewUsers(List.of(userRequest("Paula", "Mustermann", "paula@musterfrau.de")))
+        .getResults().get(0).getStatus());
+  }
+
+}
@@ -0,0 +1,83 @@
+package de.amehlen.obms.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.amehlen.obms.dto.request.BulkDeleteUserRequestDTO;
+import de.amehlen.obms.dto.request.UserPatchRequestDTO;
+import de.amehlen.obms.dto.response.BulkDeleteUserResponseDTO;
+import de.amehlen.obms.dto.response.UserChangeEventDTO;
+import de.amehlen.obms.dto.response.UserChangeType;
+import de.amehlen.obms.dto.response.UserResponseDTO;
+import de.amehlen.obms.service.UserChangeFeed;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+public class UserServiceChangeFeedTest extends UserIntegrationTest {
+
+  @Autowired
+  private UserChangeFeed userChangeFeed;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Test
+  @DisplayName("Should feed every write of a user in order")
+  void shouldFeedEveryWriteOfAUserInOrder() {
+    long start = userChangeFeed.getLatestSequence();
+
+    UserResponseDTO created = userService.createNewUser(userRequest("max@mustermann.de"));
+    userService.updateUser(created.getId(), userRequest("moritz@mustermann.de"), null);
+    userService.patchUser(created.getId(),
+        UserPatchRequestDTO.builder().withFirstname("Moritz").build(), null);
+    userService.deleteUser(created.getId());
+
+    List<UserChangeEventDTO> changes = userChangeFeed.readAfter(start, 100);
+    assertEquals(List.of(UserChangeType.CREATED, UserChangeType.UPDATED, UserChangeType.UPDATED,
+        UserChangeType.DELETED), changes.stream().map(UserChangeEventDTO::getType).toList());
+    assertTrue(changes.stream().allMatch(change -> created.getId().equals(change.getUserId())));
+    assertEquals(start + 4, changes.get(3).getSequence());
+  }
+
+  @Test
+  @DisplayName("Should feed only the deletes of users that existed")
+  void shouldFeedOnlyTheDeletesOfUsersThatExisted() {
+    UserResponseDTO created = userService.createNewUser(userRequest("max@mustermann.de"));
+    long start = userChangeFeed.getLatestSequence();
+    long missingId = created.getId() + 1000;
+
+    BulkDeleteUserResponseDTO response = userService.deleteUsers(BulkDeleteUserRequestDTO.builder()
+        .withIds(List.of(created.getId(), missingId))
+        .build());
+
+    assertEquals(1, response.getDeleted());
+    List<UserChangeEventDTO> changes = userChangeFeed.readAfter(start, 100);
+    assertEquals(1, changes.size());
+    assertEquals(UserChangeType.DELETED, changes.get(0).getType());
+    assertEquals(created.getId(), changes.get(0).getUserId());
+  }
+
+  @Test
+  @DisplayName("Should feed a write inside a transaction only once it committed")
+  void shouldFeedAWriteInsideATransactionOnlyOnceItCommitted() {
+    TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+    long start = userChangeFeed.getLatestSequence();
+
+    transaction.executeWithoutResult(status -> {
+      userService.createNewUser(userRequest("max@mustermann.de"));
+      status.setRollbackOnly();
+    });
+    assertEquals(start, userChangeFeed.getLatestSequence());
+
+    transaction.executeWithoutResult(status -> {
+      userService.createNewUser(userRequest("erika@mustermann.de"));
+      assertEquals(start, userChangeFeed.getLatestSequence());
+    });
+    assertEquals(start + 1, userChangeFeed.getLatestSequence());
+  }
+
+}
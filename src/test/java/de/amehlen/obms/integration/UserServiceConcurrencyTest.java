@@ -0,0 +1,76 @@
+package de.amehlen.obms.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.amehlen.obms.dto.request.UserRequestDTO;
+import de.amehlen.obms.dto.response.UserResponseDTO;
+import de.amehlen.obms.exception.UserAlreadyExistException;
+import de.amehlen.obms.exception.UserVersionMismatchException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class UserServiceConcurrencyTest extends UserIntegrationTest {
+
+  private static final int PARALLEL_SIGNUPS = 16;
+
+  @Test
+  @DisplayName("Should create exactly one user when the same email signs up in parallel")
+  void shouldCreateExactlyOneUserWhenTheSameEmailSignsUpInParallel() throws Exception {
+    UserRequestDTO userRequest = userRequest("max@mustermann.de");
+    AtomicInteger created = new AtomicInteger();
+    AtomicInteger conflicts = new AtomicInteger();
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(PARALLEL_SIGNUPS);
+    List<Future<?>> futures = new ArrayList<>();
+    for (int i = 0; i < PARALLEL_SIGNUPS; i++) {
+      futures.add(executor.submit(() -> {
+        start.await();
+        try {
+          userService.createNewUser(userRequest);
+          created.incrementAndGet();
+        } catch (UserAlreadyExistException exception) {
+          conflicts.incrementAndGet();
+        }
+        return null;
+      }));
+    }
+    start.countDown();
+    for (Future<?> future : futures) {
+      future.get(30, TimeUnit.SECONDS);
+    }
+    executor.shutdown();
+
+    assertEquals(1, created.get());
+    assertEquals(PARALLEL_SIGNUPS - 1, conflicts.get());
+    assertEquals(1, userRepository.count());
+    assertTrue(userRepository.findUserByEmail("max@mustermann.de").isPresent());
+  }
+
+  @Test
+  @DisplayName("Should reject an update that was based on a stale version")
+  void shouldRejectAnUpdateThatWasBasedOnAStaleVersion() {
+    UserResponseDTO created = userService.createNewUser(userRequest("max@mustermann.de"));
+    UserRequestDTO firstUpdate = userRequest("Moritz", "Mustermann", "max@mustermann.de");
+    UserRequestDTO staleUpdate = userRequest("Erika", "Mustermann", "max@mustermann.de");
+
+    UserResponseDTO updated = userService.updateUser(created.getId(), firstUpdate,
+        created.getVersion());
+
+    assertEquals(created.getVersion() + 1, updated.getVersion());
+    assertEquals(updated.getVersion(), userService.getUserVersion(created.getId()).getVersion());
+    assertThrows(UserVersionMismatchException.class,
+        () -> userService.updateUser(created.getId(), staleUpdate, created.getVersion()));
+    assertEquals("Moritz", userService.getUserById(created.getId()).getFirstname());
+  }
+
+}
@@ -0,0 +1,63 @@
+package de.amehlen.obms.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import de.amehlen.obms.dto.request.BulkDeleteUserRequestDTO;
+import de.amehlen.obms.dto.response.BulkDeleteUserResponseDTO;
+import de.amehlen.obms.dto.response.UserResponseDTO;
+import de.amehlen.obms.exception.UserNotFoundException;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(properties = "obms.users.delete.chunk-size=2")
+public class UserServiceDeleteTest extends UserIntegrationTest {
+
+  @Test
+  @DisplayName("Should delete the given ids in chunks and skip unknown ids")
+  void shouldDeleteTheGivenIdsInChunksAndSkipUnknownIds() {
+    UserResponseDTO max = userService.createNewUser(userRequest("max@mustermann.de"));
+    UserResponseDTO erika = userService.createNewUser(userRequest("erika@mustermann.de"));
+    UserResponseDTO julia = userService.createNewUser(userRequest("julia@musterfrau.de"));
+    UserResponseDTO moritz = userService.createNewUser(userRequest("moritz@mustermann.de"));
+
+    BulkDeleteUserResponseDTO result = userService.deleteUsers(BulkDeleteUserRequestDTO.builder()
+        .withIds(List.of(max.getId(), erika.getId(), julia.getId(), max.getId(), 0L))
+        .build());
+
+    assertEquals(3, result.getDeleted());
+    assertFalse(result.isSoft());
+    assertEquals(List.of(moritz.getId()),
+        userRepository.findAll().stream().map(user -> user.getId()).toList());
+  }
+
+  @Test
+  @DisplayName("Should delete all users last modified before the given instant")
+  void shouldDeleteAllUsersLastModifiedBeforeTheGivenInstant() throws Exception {
+    userService.createNewUser(userRequest("max@mustermann.de"));
+    userService.createNewUser(userRequest("erika@mustermann.de"));
+    userService.createNewUser(userRequest("julia@musterfrau.de"));
+    Thread.sleep(10);
+    Instant before = Instant.now();
+    Thread.sleep(10);
+    userService.createNewUser(userRequest("moritz@mustermann.de"));
+
+    BulkDeleteUserResponseDTO result = userService.deleteUsers(BulkDeleteUserRequestDTO.builder()
+        .withLastModifiedBefore(before)
+        .build());
+
+    assertEquals(3, result.getDeleted());
+    assertEquals(1, userRepository.count());
+  }
+
+  @Test
+  @DisplayName("Should throw not found when deleting an unknown user")
+  void shouldThrowNotFoundWhenDeletingAnUnknownUser() {
+    assertThrows(UserNotFoundException.class, () -> userService.deleteUser(0L));
+  }
+
+}
@@ -0,0 +1,56 @@
+package de.amehlen.obms.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import de.amehlen.obms.dto.request.UserPatchRequestDTO;
+import de.amehlen.obms.dto.response.UserResponseDTO;
+import de.amehlen.obms.exception.UserAlreadyExistException;
+import de.amehlen.obms.exception.UserNotFoundException;
+import de.amehlen.obms.exception.UserVersionMismatchException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class UserServicePatchTest extends UserIntegrationTest {
+
+  @Test
+  @DisplayName("Should change only the patched fields and increment the version")
+  void shouldChangeOnlyThePatchedFieldsAndIncrementTheVersion() {
+    UserResponseDTO created = userService.createNewUser(userRequest("max@mustermann.de"));
+    // warm the cache to check that the patch evicts it
+    userService.getUserById(created.getId());
+
+    userService.patchUser(created.getId(),
+        UserPatchRequestDTO.builder().withFirstname("Moritz").build(), created.getVersion());
+
+    UserResponseDTO patched = userService.getUserById(created.getId());
+    assertEquals("Moritz", patched.getFirstname());
+    assertEquals("Mustermann", patched.getLastname());
+    assertEquals("max@mustermann.de", patched.getEmail());
+    assertEquals(created.getVersion() + 1, patched.getVersion());
+  }
+
+  @Test
+  @DisplayName("Should tell a stale version from a missing user")
+  void shouldTellAStaleVersionFromAMissingUser() {
+    UserResponseDTO created = userService.createNewUser(userRequest("max@mustermann.de"));
+    UserPatchRequestDTO patch = UserPatchRequestDTO.builder().withLastname("Musterfrau").build();
+    userService.patchUser(created.getId(), patch, null);
+
+    assertThrows(UserVersionMismatchException.class,
+        () -> userService.patchUser(created.getId(), patch, created.getVersion()));
+    assertThrows(UserNotFoundException.class,
+        () -> userService.patchUser(created.getId() + 1000, patch, null));
+  }
+
+  @Test
+  @DisplayName("Should reject a patch to an email that is already taken")
+  void shouldRejectAPatchToAnEmailThatIsAlreadyTaken() {
+    userService.createNewUser(userRequest("max@mustermann.de"));
+    UserResponseDTO erika = userService.createNewUser(userRequest("erika@mustermann.de"));
+
+    assertThrows(UserAlreadyExistException.class, () -> userService.patchUser(erika.getId(),
+        UserPatchRequestDTO.builder().withEmail("max@mustermann.de").build(), null));
+  }
+
+}
@@ -0,0 +1,44 @@
+package de.amehlen.obms.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import de.amehlen.obms.dto.response.UserResponseDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:obms_routing_primary;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "obms.datasource.replica.enabled=true",
+    "obms.datasource.replica.url=jdbc:h2:mem:obms_routing_replica;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "obms.datasource.replica.username=sa",
+    "obms.datasource.replica.password=",
+    "obms.datasource.replica.hikari.connection-init-sql=CREATE LINKED TABLE IF NOT EXISTS "
+        + "user('org.h2.Driver', 'jdbc:h2:mem:obms_routing_primary', 'sa', '', 'USER') READONLY"
+})
+public class UserServiceReplicaRoutingTest extends UserIntegrationTest {
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Test
+  @DisplayName("Should write to the primary and read the users back from the replica")
+  void shouldWriteToThePrimaryAndReadTheUsersBackFromTheReplica() {
+    double replicaConnections = connections("replica");
+    UserResponseDTO max = userService.createNewUser(userRequest("max@mustermann.de"));
+    cacheManager.getCache("users").clear();
+
+    assertEquals(replicaConnections, connections("replica"));
+    assertEquals(1, userService.getAllUsers(null, null).getUsers().size());
+    assertEquals("max@mustermann.de", userService.getUserById(max.getId()).getEmail());
+    assertEquals(replicaConnections + 2, connections("replica"));
+  }
+
+  private double connections(String target) {
+    return meterRegistry.get("obms.datasource.connections").tag("target", target).counter()
+        .count();
+  }
+
+}
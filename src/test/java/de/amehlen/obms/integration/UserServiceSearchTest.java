@@ -0,0 +1,85 @@
+package de.amehlen.obms.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import de.amehlen.obms.dto.response.UserPageResponseDTO;
+import de.amehlen.obms.dto.response.UserResponseDTO;
+import de.amehlen.obms.exception.InvalidSearchQueryException;
+import de.amehlen.obms.service.UserSearchField;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class UserServiceSearchTest extends UserIntegrationTest {
+
+  @BeforeEach
+  void setUp() {
+    userService.createNewUsers(List.of(
+        userRequest("Max", "Mustermann", "max@mustermann.de"),
+        userRequest("Maximilian", "Schmidt", "schmidt@example.de"),
+        userRequest("Erika", "Maxwell", "erika@example.de"),
+        userRequest("Julia", "Marx", "ma_x@example.de")));
+  }
+
+  @Test
+  @DisplayName("Should find users by the prefix of a single field")
+  void shouldFindUsersByThePrefixOfASingleField() {
+    assertEquals(List.of("Max", "Maximilian"),
+        firstnames(userService.searchUsers("Max", UserSearchField.FIRSTNAME, null, null)));
+    assertEquals(List.of("Erika"),
+        firstnames(userService.searchUsers("Max", UserSearchField.LASTNAME, null, null)));
+    assertEquals(List.of("Erika"),
+        firstnames(userService.searchUsers("erika@", UserSearchField.EMAIL, null, null)));
+  }
+
+  @Test
+  @DisplayName("Should match firstnames before the remaining fields when paging")
+  void shouldMatchFirstnamesBeforeTheRemainingFieldsWhenPaging() {
+    UserPageResponseDTO first = userService.searchUsers("Ma", UserSearchField.ANY, null, 2);
+    UserPageResponseDTO second = userService
+        .searchUsers("Ma", UserSearchField.ANY, first.getNextCursor(), 2);
+
+    assertEquals(List.of("Max", "Maximilian"), firstnames(first));
+    assertNotNull(first.getNextCursor());
+    assertEquals(List.of("Julia", "Erika"), firstnames(second));
+    assertNull(second.getNextCursor());
+  }
+
+  @Test
+  @DisplayName("Should find users by a prefix ending in z or a digit")
+  void shouldFindUsersByAPrefixEndingInZOrADigit() {
+    userService.createNewUser(userRequest("Mzia", "Kurz", "mz9@example.de"));
+
+    assertEquals(List.of("Mzia"),
+        firstnames(userService.searchUsers("Mz", UserSearchField.FIRSTNAME, null, null)));
+    assertEquals(List.of("Mzia"),
+        firstnames(userService.searchUsers("Kurz", UserSearchField.LASTNAME, null, null)));
+    assertEquals(List.of("Mzia"),
+        firstnames(userService.searchUsers("mz9", UserSearchField.EMAIL, null, null)));
+  }
+
+  @Test
+  @DisplayName("Should match wildcards in the query literally")
+  void shouldMatchWildcardsInTheQueryLiterally() {
+    assertEquals(List.of("Julia"),
+        firstnames(userService.searchUsers("ma_", UserSearchField.EMAIL, null, null)));
+    assertEquals(List.of(),
+        firstnames(userService.searchUsers("%x", UserSearchField.ANY, null, null)));
+  }
+
+  @Test
+  @DisplayName("Should reject a query shorter than the minimum prefix length")
+  void shouldRejectAQueryShorterThanTheMinimumPrefixLength() {
+    assertThrows(InvalidSearchQueryException.class,
+        () -> userService.searchUsers(" M ", UserSearchField.ANY, null, null));
+  }
+
+  private static List<String> firstnames(UserPageResponseDTO page) {
+    return page.getUsers().stream().map(UserResponseDTO::getFirstname).toList();
+  }
+
+}
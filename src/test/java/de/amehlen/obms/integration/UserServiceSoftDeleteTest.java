@@ -0,0 +1,78 @@
+package de.amehlen.obms.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.amehlen.obms.dto.response.BulkUserItemResponseDTO;
+import de.amehlen.obms.dto.response.BulkUserItemStatus;
+import de.amehlen.obms.dto.response.BulkUserResponseDTO;
+import de.amehlen.obms.dto.response.UserResponseDTO;
+import de.amehlen.obms.exception.UserNotFoundException;
+import de.amehlen.obms.service.UserPurgeJob;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(properties = {
+    "obms.users.delete.soft=true",
+    "obms.users.purge.retention=0s",
+    "obms.users.purge.interval=PT1H",
+    "obms.users.purge.chunk-size=1",
+    "obms.users.purge.pause=0ms"
+})
+public class UserServiceSoftDeleteTest extends UserIntegrationTest {
+
+  @Autowired
+  private UserPurgeJob userPurgeJob;
+
+  @AfterEach
+  void tearDown() {
+    userPurgeJob.purgeDeletedUsers();
+  }
+
+  @Test
+  @DisplayName("Should hide soft-deleted users until the purge job removes them")
+  void shouldHideSoftDeletedUsersUntilThePurgeJobRemovesThem() {
+    UserResponseDTO max = userService.createNewUser(userRequest("max@mustermann.de"));
+    UserResponseDTO erika = userService.createNewUser(userRequest("erika@mustermann.de"));
+    userService.createNewUser(userRequest("julia@musterfrau.de"));
+    userService.getUserById(max.getId());
+
+    userService.deleteUser(max.getId());
+    userService.deleteUser(erika.getId());
+
+    assertThrows(UserNotFoundException.class, () -> userService.getUserById(max.getId()));
+    assertThrows(UserNotFoundException.class, () -> userService.deleteUser(max.getId()));
+    assertEquals(1, userRepository.count());
+    assertEquals(2, deletedIds().size());
+
+    userPurgeJob.purgeDeletedUsers();
+
+    assertTrue(deletedIds().isEmpty());
+    assertEquals(1, userRepository.count());
+  }
+
+  @Test
+  @DisplayName("Should report the emails of soft-deleted users as taken")
+  void shouldReportTheEmailsOfSoftDeletedUsersAsTaken() {
+    UserResponseDTO max = userService.createNewUser(userRequest("max@mustermann.de"));
+    userService.deleteUser(max.getId());
+
+    assertEquals(List.of("max@mustermann.de"),
+        userRepository.findExistingEmails(List.of("max@mustermann.de", "erika@mustermann.de")));
+    BulkUserResponseDTO result = userService.createNewUsers(List.of(
+        userRequest("max@mustermann.de"), userRequest("erika@mustermann.de")));
+    assertEquals(List.of(BulkUserItemStatus.CONFLICT, BulkUserItemStatus.CREATED),
+        result.getResults().stream().map(BulkUserItemResponseDTO::getStatus).toList());
+  }
+
+  private List<Long> deletedIds() {
+    return userRepository.findIdsDeletedBefore(Instant.now().plusSeconds(1), 10);
+  }
+
+}
@@ -0,0 +1,107 @@
+package de.amehlen.obms.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.amehlen.obms.interceptor.AdaptiveConcurrencyLimit;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class AdaptiveConcurrencyLimitTest {
+
+  private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+  private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(50);
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final AdaptiveConcurrencyLimit limit =
+      new AdaptiveConcurrencyLimit(meterRegistry, "read", 10, 2, 40);
+
+  @Test
+  @DisplayName("Should raise the limit while a saturated limit keeps the latency stable")
+  void shouldRaiseTheLimitWhileASaturatedLimitKeepsTheLatencyStable() throws Exception {
+    runSaturated(50, FAST);
+
+    assertEquals(40, limit.getLimit());
+    assertEquals(40.0, meterRegistry.get("obms.concurrency-limit.limit").tag("budget", "read")
+        .gauge().value());
+  }
+
+  @Test
+  @DisplayName("Should lower the limit when the latency rises")
+  void shouldLowerTheLimitWhenTheLatencyRises() throws Exception {
+    runSaturated(5, FAST);
+    int limitBefore = limit.getLimit();
+
+    runSaturated(10, SLOW);
+
+    assertTrue(limit.getLimit() < limitBefore / 2, "limit " + limit.getLimit());
+  }
+
+  @Test
+  @DisplayName("Should not raise a limit that is not used")
+  void shouldNotRaiseALimitThatIsNotUsed() throws Exception {
+    for (int request = 0; request < 100; request++) {
+      limit.tryAcquire(0);
+      limit.release(FAST, false);
+    }
+
+    assertEquals(10, limit.getLimit());
+  }
+
+  @Test
+  @DisplayName("Should lower the limit when requests fail")
+  void shouldLowerTheLimitWhenRequestsFail() throws Exception {
+    for (int request = 0; request < 100; request++) {
+      limit.tryAcquire(0);
+      limit.release(FAST, true);
+    }
+
+    assertEquals(2, limit.getLimit());
+  }
+
+  @Test
+  @DisplayName("Should let a queued request take a released slot")
+  void shouldLetAQueuedRequestTakeAReleasedSlot() throws Exception {
+    AdaptiveConcurrencyLimit single = new AdaptiveConcurrencyLimit(meterRegistry, "write", 1, 1, 1);
+    assertTrue(single.tryAcquire(0));
+    assertFalse(single.tryAcquire(0));
+    CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> {
+      try {
+        return single.tryAcquire(TimeUnit.SECONDS.toNanos(10));
+      } catch (InterruptedException exception) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    });
+    while (single.getQueued() < 1) {
+      Thread.onSpinWait();
+    }
+
+    single.release(FAST, false);
+
+    assertTrue(queued.get(10, TimeUnit.SECONDS));
+    assertEquals(1, single.getInFlight());
+    assertEquals(1, meterRegistry.get("obms.concurrency-limit.rejections").tag("budget", "write")
+        .counter().count());
+  }
+
+  /**
+   * Fills the current limit and releases every slot with the given latency, for several rounds.
+   */
+  private void runSaturated(int rounds, long rttNanos) throws InterruptedException {
+    for (int round = 0; round < rounds; round++) {
+      int acquired = 0;
+      while (limit.tryAcquire(0)) {
+        acquired++;
+      }
+      for (int slot = 0; slot < acquired; slot++) {
+        limit.release(rttNanos, false);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,63 @@
+package de.amehlen.obms.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.amehlen.obms.exception.ServiceOverloadedException;
+import de.amehlen.obms.interceptor.AdaptiveConcurrencyLimit;
+import de.amehlen.obms.interceptor.ConcurrencyLimitInterceptor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+public class ConcurrencyLimitInterceptorTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final AdaptiveConcurrencyLimit readLimit =
+      new AdaptiveConcurrencyLimit(meterRegistry, "read", 1, 1, 1);
+  private final AdaptiveConcurrencyLimit writeLimit =
+      new AdaptiveConcurrencyLimit(meterRegistry, "write", 1, 1, 1);
+  private final ConcurrencyLimitInterceptor interceptor = new ConcurrencyLimitInterceptor(
+      readLimit, writeLimit, Duration.ofMillis(10), Duration.ofSeconds(2));
+
+  @Test
+  @DisplayName("Should reject a request when all permits are taken")
+  void shouldRejectARequestWhenAllPermitsAreTaken() throws Exception {
+    MockHttpServletRequest first = new MockHttpServletRequest("GET", "/users/1");
+    assertTrue(interceptor.preHandle(first, new MockHttpServletResponse(), null));
+
+    ServiceOverloadedException exception = assertThrows(ServiceOverloadedException.class,
+        () -> interceptor.preHandle(new MockHttpServletRequest("GET", "/users/2"),
+            new MockHttpServletResponse(), null));
+    assertEquals(2, exception.getRetryAfterSeconds());
+    assertEquals(1, meterRegistry.get("obms.concurrency-limit.rejections").tag("budget", "read")
+        .counter().count());
+  }
+
+  @Test
+  @DisplayName("Should admit writes while the reads use up their budget")
+  void shouldAdmitWritesWhileTheReadsUseUpTheirBudget() throws Exception {
+    interceptor.preHandle(new MockHttpServletRequest("GET", "/users"),
+        new MockHttpServletResponse(), null);
+
+    assertTrue(interceptor.preHandle(new MockHttpServletRequest("POST", "/users"),
+        new MockHttpServletResponse(), null));
+    assertEquals(1, writeLimit.getInFlight());
+  }
+
+  @Test
+  @DisplayName("Should release the permit when the request completes")
+  void shouldReleaseThePermitWhenTheRequestCompletes() throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/users/1");
+    interceptor.preHandle(request, new MockHttpServletResponse(), null);
+    interceptor.afterCompletion(request, new MockHttpServletResponse(), null, null);
+    interceptor.afterCompletion(request, new MockHttpServletResponse(), null, null);
+
+    assertEquals(0, writeLimit.getInFlight());
+  }
+
+}
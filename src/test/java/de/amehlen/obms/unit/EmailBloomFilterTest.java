@@ -0,0 +1,46 @@
+package de.amehlen.obms.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.amehlen.obms.service.EmailBloomFilter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class EmailBloomFilterTest {
+
+  private static final int EMAILS = 100_000;
+
+  @Test
+  @DisplayName("Should contain every added email")
+  void shouldContainEveryAddedEmail() {
+    EmailBloomFilter filter = EmailBloomFilter.create(EMAILS, 0.01);
+    for (int i = 0; i < EMAILS; i++) {
+      filter.put("user" + i + "@mustermann.de");
+    }
+
+    for (int i = 0; i < EMAILS; i++) {
+      assertTrue(filter.mightContain("user" + i + "@mustermann.de"));
+    }
+    assertEquals(EMAILS, filter.insertions());
+  }
+
+  @Test
+  @DisplayName("Should keep the false positive rate near the configured rate")
+  void shouldKeepTheFalsePositiveRateNearTheConfiguredRate() {
+    EmailBloomFilter filter = EmailBloomFilter.create(EMAILS, 0.01);
+    for (int i = 0; i < EMAILS; i++) {
+      filter.put("user" + i + "@mustermann.de");
+    }
+
+    int falsePositives = 0;
+    for (int i = 0; i < EMAILS; i++) {
+      if (filter.mightContain("user" + i + "@musterfrau.de")) {
+        falsePositives++;
+      }
+    }
+    assertTrue(falsePositives < EMAILS * 0.02, falsePositives + " false positives");
+    assertTrue(filter.expectedFalsePositiveRate() < 0.02);
+  }
+
+}
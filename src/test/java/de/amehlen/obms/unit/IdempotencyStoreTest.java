@@ -0,0 +1,89 @@
+package de.amehlen.obms.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.amehlen.obms.exception.UserAlreadyExistException;
+import de.amehlen.obms.service.IdempotencyStore;
+import de.amehlen.obms.service.IdempotencyStore.IdempotentResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class IdempotencyStoreTest {
+
+  private final IdempotencyStore store = new IdempotencyStore(new SimpleMeterRegistry(), 100,
+      Duration.ofMinutes(1), Duration.ofSeconds(10));
+
+  @Test
+  @DisplayName("Should let an in-flight duplicate wait for the first execution")
+  void shouldLetAnInFlightDuplicateWaitForTheFirstExecution() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger executions = new AtomicInteger();
+    CompletableFuture<IdempotentResult<String>> first = CompletableFuture.supplyAsync(
+        () -> store.execute("test", "key", "request", () -> {
+          executions.incrementAndGet();
+          started.countDown();
+          await(release);
+          return "created";
+        }));
+    started.await(10, TimeUnit.SECONDS);
+    CompletableFuture<IdempotentResult<String>> duplicate = CompletableFuture.supplyAsync(
+        () -> store.execute("test", "key", "request", () -> {
+          executions.incrementAndGet();
+          return "created twice";
+        }));
+
+    release.countDown();
+
+    assertFalse(first.get(10, TimeUnit.SECONDS).replayed());
+    IdempotentResult<String> replay = duplicate.get(10, TimeUnit.SECONDS);
+    assertTrue(replay.replayed());
+    assertEquals("created", replay.value());
+    assertEquals(1, executions.get());
+  }
+
+  @Test
+  @DisplayName("Should run a request again after it failed")
+  void shouldRunARequestAgainAfterItFailed() {
+    assertThrows(UserAlreadyExistException.class, () -> store.execute("test", "failed", "request",
+        () -> {
+          throw new UserAlreadyExistException("User already exist.");
+        }));
+
+    IdempotentResult<String> retry = store.execute("test", "failed", "request", () -> "created");
+
+    assertFalse(retry.replayed());
+    assertEquals("created", retry.value());
+  }
+
+  @Test
+  @DisplayName("Should run a request again after it failed with an error")
+  void shouldRunARequestAgainAfterItFailedWithAnError() {
+    assertThrows(OutOfMemoryError.class, () -> store.execute("test", "error", "request", () -> {
+      throw new OutOfMemoryError("Java heap space");
+    }));
+
+    IdempotentResult<String> retry = store.execute("test", "error", "request", () -> "created");
+
+    assertFalse(retry.replayed());
+    assertEquals("created", retry.value());
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(10, TimeUnit.SECONDS);
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+}
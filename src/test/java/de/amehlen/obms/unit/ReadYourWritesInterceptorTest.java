@@ -0,0 +1,49 @@
+package de.amehlen.obms.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import de.amehlen.obms.datasource.ReplicaRoutingDataSource;
+import de.amehlen.obms.interceptor.ReadYourWritesInterceptor;
+import java.time.Duration;
+import javax.servlet.http.Cookie;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+public class ReadYourWritesInterceptorTest {
+
+  private final ReadYourWritesInterceptor interceptor =
+      new ReadYourWritesInterceptor(Duration.ofMillis(1500));
+
+  @Test
+  @DisplayName("Should route a write to the primary and mark the client for the window")
+  void shouldRouteAWriteToThePrimaryAndMarkTheClientForTheWindow() {
+    MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/users/1");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    interceptor.preHandle(request, response, null);
+
+    assertNotNull(request.getAttribute(ReplicaRoutingDataSource.PRIMARY_REQUIRED_ATTRIBUTE));
+    Cookie cookie = response.getCookie(ReadYourWritesInterceptor.COOKIE_NAME);
+    assertNotNull(cookie);
+    assertEquals(2, cookie.getMaxAge());
+  }
+
+  @Test
+  @DisplayName("Should route a read to the primary only for a client that wrote recently")
+  void shouldRouteAReadToThePrimaryOnlyForAClientThatWroteRecently() {
+    MockHttpServletRequest anonymousRead = new MockHttpServletRequest("GET", "/users/1");
+    MockHttpServletRequest writerRead = new MockHttpServletRequest("GET", "/users/1");
+    writerRead.setCookies(new Cookie(ReadYourWritesInterceptor.COOKIE_NAME, "1"));
+
+    interceptor.preHandle(anonymousRead, new MockHttpServletResponse(), null);
+    interceptor.preHandle(writerRead, new MockHttpServletResponse(), null);
+
+    assertNull(anonymousRead.getAttribute(ReplicaRoutingDataSource.PRIMARY_REQUIRED_ATTRIBUTE));
+    assertNotNull(writerRead.getAttribute(ReplicaRoutingDataSource.PRIMARY_REQUIRED_ATTRIBUTE));
+  }
+
+}
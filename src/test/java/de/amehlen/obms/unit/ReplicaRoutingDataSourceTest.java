@@ -0,0 +1,83 @@
+package de.amehlen.obms.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import de.amehlen.obms.datasource.ReplicaRoutingDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+public class ReplicaRoutingDataSourceTest {
+
+  private final DataSource primary = mock(DataSource.class);
+  private final DataSource replica = mock(DataSource.class);
+  private final Connection primaryConnection = mock(Connection.class);
+  private final Connection replicaConnection = mock(Connection.class);
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final ReplicaRoutingDataSource routingDataSource =
+      new ReplicaRoutingDataSource(primary, replica, Duration.ofMinutes(1), meterRegistry);
+
+  @BeforeEach
+  void setUp() throws Exception {
+    when(primary.getConnection()).thenReturn(primaryConnection);
+    when(replica.getConnection()).thenReturn(replicaConnection);
+  }
+
+  @AfterEach
+  void tearDown() {
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    RequestContextHolder.resetRequestAttributes();
+  }
+
+  @Test
+  @DisplayName("Should send read-only transactions to the replica and others to the primary")
+  void shouldSendReadOnlyTransactionsToTheReplicaAndOthersToThePrimary() throws Exception {
+    assertSame(primaryConnection, routingDataSource.getConnection());
+
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+    assertSame(replicaConnection, routingDataSource.getConnection());
+  }
+
+  @Test
+  @DisplayName("Should read from the primary when the request requires it")
+  void shouldReadFromThePrimaryWhenTheRequestRequiresIt() throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    request.setAttribute(ReplicaRoutingDataSource.PRIMARY_REQUIRED_ATTRIBUTE, Boolean.TRUE);
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+    assertSame(primaryConnection, routingDataSource.getConnection());
+    verify(replica, never()).getConnection();
+  }
+
+  @Test
+  @DisplayName("Should fall back to the primary and skip the replica while it is unavailable")
+  void shouldFallBackToThePrimaryAndSkipTheReplicaWhileItIsUnavailable() throws Exception {
+    when(replica.getConnection()).thenThrow(new SQLTransientConnectionException("timeout"));
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+    assertSame(primaryConnection, routingDataSource.getConnection());
+    assertSame(primaryConnection, routingDataSource.getConnection());
+
+    verify(replica).getConnection();
+    assertEquals(1, meterRegistry.get("obms.datasource.replica.fallbacks").counter().count());
+    assertEquals(0, meterRegistry.get("obms.datasource.replica.available").gauge().value());
+  }
+
+}
@@ -0,0 +1,91 @@
+package de.amehlen.obms.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import de.amehlen.obms.exception.UserNotFoundException;
+import de.amehlen.obms.service.SingleFlight;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class SingleFlightTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final SingleFlight<Long, String> singleFlight =
+      new SingleFlight<>(meterRegistry, "test.lookups");
+
+  @Test
+  @DisplayName("Should share one computation between concurrent calls for the same key")
+  void shouldShareOneComputationBetweenConcurrentCallsForTheSameKey() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger computations = new AtomicInteger();
+    CompletableFuture<String> first = CompletableFuture.supplyAsync(
+        () -> singleFlight.execute(1L, () -> {
+          computations.incrementAndGet();
+          started.countDown();
+          await(release);
+          return "Max";
+        }));
+    started.await(10, TimeUnit.SECONDS);
+    CompletableFuture<String> second = CompletableFuture.supplyAsync(
+        () -> singleFlight.execute(1L, () -> {
+          computations.incrementAndGet();
+          return "Max again";
+        }));
+    // the second call has to reach the running computation before it is released
+    while (meterRegistry.get("test.lookups").tag("result", "coalesced").counter().count() < 1) {
+      Thread.onSpinWait();
+    }
+
+    release.countDown();
+
+    assertEquals("Max", first.get(10, TimeUnit.SECONDS));
+    assertEquals("Max", second.get(10, TimeUnit.SECONDS));
+    assertEquals(1, computations.get());
+    assertEquals(0.5, meterRegistry.get("test.lookups.coalescing-ratio").gauge().value());
+    assertEquals("Erika", singleFlight.execute(1L, () -> "Erika"));
+  }
+
+  @Test
+  @DisplayName("Should hand the exception of the computation to every waiting call")
+  void shouldHandTheExceptionOfTheComputationToEveryWaitingCall() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    CompletableFuture<String> first = CompletableFuture.supplyAsync(
+        () -> singleFlight.execute(2L, () -> {
+          started.countDown();
+          await(release);
+          throw new UserNotFoundException("User with id 2 not found.");
+        }));
+    started.await(10, TimeUnit.SECONDS);
+    CompletableFuture<String> second = CompletableFuture.supplyAsync(
+        () -> singleFlight.execute(2L, () -> "Max"));
+    while (meterRegistry.get("test.lookups").tag("result", "coalesced").counter().count() < 1) {
+      Thread.onSpinWait();
+    }
+
+    release.countDown();
+
+    for (CompletableFuture<String> call : List.of(first, second)) {
+      CompletionException exception = assertThrows(CompletionException.class, call::join);
+      assertEquals(UserNotFoundException.class, exception.getCause().getClass());
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(10, TimeUnit.SECONDS);
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+}
@@ -0,0 +1,55 @@
+package de.amehlen.obms.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import de.amehlen.obms.dto.response.UserChangeEventDTO;
+import de.amehlen.obms.dto.response.UserChangeType;
+import de.amehlen.obms.service.UserChangeFeed;
+import de.amehlen.obms.service.UserChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class UserChangeFeedTest {
+
+  private final UserChangeFeed userChangeFeed =
+      new UserChangeFeed(new SimpleMeterRegistry(), 3, 10, Duration.ofMinutes(1));
+
+  @AfterEach
+  void tearDown() {
+    userChangeFeed.shutdown();
+  }
+
+  @Test
+  @DisplayName("Should return the changes after a sequence in batches")
+  void shouldReturnTheChangesAfterASequenceInBatches() {
+    userChangeFeed.onUserChanged(new UserChangedEvent(UserChangeType.CREATED, List.of(1L, 2L)));
+    userChangeFeed.onUserChanged(new UserChangedEvent(UserChangeType.DELETED, List.of(1L)));
+
+    assertEquals(List.of(1L, 2L), sequences(userChangeFeed.readAfter(0, 2)));
+    assertEquals(List.of(3L), sequences(userChangeFeed.readAfter(2, 2)));
+    assertEquals(UserChangeType.DELETED, userChangeFeed.readAfter(2, 2).get(0).getType());
+    assertEquals(List.of(), userChangeFeed.readAfter(3, 2));
+  }
+
+  @Test
+  @DisplayName("Should not return changes that were overwritten or are unknown")
+  void shouldNotReturnChangesThatWereOverwrittenOrAreUnknown() {
+    userChangeFeed.onUserChanged(
+        new UserChangedEvent(UserChangeType.UPDATED, List.of(1L, 2L, 3L, 4L)));
+
+    assertNull(userChangeFeed.readAfter(0, 10));
+    assertEquals(List.of(2L, 3L, 4L), sequences(userChangeFeed.readAfter(1, 10)));
+    assertNull(userChangeFeed.readAfter(5, 10));
+    assertNull(userChangeFeed.readAfter(-1, 10));
+  }
+
+  private static List<Long> sequences(List<UserChangeEventDTO> changes) {
+    return changes.stream().map(UserChangeEventDTO::getSequence).toList();
+  }
+
+}
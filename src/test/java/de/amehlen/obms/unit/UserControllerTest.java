@@ -3,34 +3,75 @@ package de.amehlen.obms.unit;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import de.amehlen.obms.controller.UserController;
+import de.amehlen.obms.dto.request.UserPatchRequestDTO;
 import de.amehlen.obms.dto.request.UserRequestDTO;
+import de.amehlen.obms.dto.response.BulkUserItemResponseDTO;
+import de.amehlen.obms.dto.response.BulkUserItemStatus;
+import de.amehlen.obms.dto.response.BulkUserResponseDTO;
+import de.amehlen.obms.dto.response.UserBatchResponseDTO;
+import de.amehlen.obms.dto.response.UserChangeType;
+import de.amehlen.obms.dto.response.UserPageResponseDTO;
 import de.amehlen.obms.dto.response.UserResponseDTO;
+import de.amehlen.obms.exception.IdempotencyKeyMismatchException;
+import de.amehlen.obms.exception.InvalidCursorException;
+import de.amehlen.obms.exception.InvalidSearchQueryException;
 import de.amehlen.obms.exception.UserAlreadyExistException;
 import de.amehlen.obms.exception.UserNotFoundException;
+import de.amehlen.obms.exception.UserVersionMismatchException;
+import de.amehlen.obms.repository.UserVersion;
+import de.amehlen.obms.service.IdempotencyStore;
+import de.amehlen.obms.service.UserChangeFeed;
+import de.amehlen.obms.service.UserChangedEvent;
+import de.amehlen.obms.service.UserExportFormat;
+import de.amehlen.obms.service.UserJsonCache;
+import de.amehlen.obms.service.UserSearchField;
 import de.amehlen.obms.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 @WebMvcTest(UserController.class)
+@Import({IdempotencyStore.class, UserJsonCache.class, UserChangeFeed.class,
+    SimpleMeterRegistry.class})
 public class UserControllerTest {
 
   @Autowired
@@ -39,6 +80,9 @@ public class UserControllerTest {
   @Autowired
   private ObjectMapper mapper;
 
+  @Autowired
+  private UserChangeFeed userChangeFeed;
+
   @MockBean
   private UserService userServiceMocked;
 
@@ -71,23 +115,121 @@ public class UserControllerTest {
     @Test
     @DisplayName("Should return an empty list of users")
     void shouldReturnAnEmptyListOfUsers() throws Exception {
-      when(userServiceMocked.getAllUsers()).thenReturn(new ArrayList<>());
+      when(userServiceMocked.getAllUsers(null, null)).thenReturn(UserPageResponseDTO
+          .builder()
+          .withUsers(new ArrayList<>())
+          .build());
       mockMvc.perform(get("/users").contentType(MediaType.APPLICATION_JSON))
           .andExpect(status().isOk())
-          .andExpect(jsonPath("$", hasSize(0)));
+          .andExpect(jsonPath("$.users", hasSize(0)))
+          .andExpect(jsonPath("$.nextCursor", nullValue()));
     }
 
     @Test
     @DisplayName("Should return a list of all users")
     void shouldReturnAListOfAllUsers() throws Exception {
       List<UserResponseDTO> users = new ArrayList<>(Arrays.asList(user1, user2, user3));
-      when(userServiceMocked.getAllUsers()).thenReturn(users);
+      when(userServiceMocked.getAllUsers(null, null)).thenReturn(UserPageResponseDTO
+          .builder()
+          .withUsers(users)
+          .build());
       mockMvc.perform(get("/users").contentType(MediaType.APPLICATION_JSON))
           .andExpect(status().isOk())
-          .andExpect(jsonPath("$", hasSize(3)))
-          .andExpect(jsonPath("$[0].firstname", is("Max")))
-          .andExpect(jsonPath("$[1].firstname", is("Erika")))
-          .andExpect(jsonPath("$[2].firstname", is("Julia")));
+          .andExpect(jsonPath("$.users", hasSize(3)))
+          .andExpect(jsonPath("$.users[0].firstname", is("Max")))
+          .andExpect(jsonPath("$.users[1].firstname", is("Erika")))
+          .andExpect(jsonPath("$.users[2].firstname", is("Julia")));
+    }
+
+    @Test
+    @DisplayName("Should return a batch of users and the missing ids")
+    void shouldReturnABatchOfUsersAndTheMissingIds() throws Exception {
+      when(userServiceMocked.getUsersByIds(List.of(2L, 9L, 1L))).thenReturn(UserBatchResponseDTO
+          .builder()
+          .withUsers(List.of(user2, user1))
+          .withMissingIds(List.of(9L))
+          .build());
+      mockMvc.perform(get("/users/batch").param("ids", "2,9,1"))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.users", hasSize(2)))
+          .andExpect(jsonPath("$.users[0].firstname", is("Erika")))
+          .andExpect(jsonPath("$.users[1].firstname", is("Max")))
+          .andExpect(jsonPath("$.missingIds[0]", is(9)));
+    }
+
+    @Test
+    @DisplayName("Should return a page of users with the cursor of the next page")
+    void shouldReturnAPageOfUsersWithTheCursorOfTheNextPage() throws Exception {
+      List<UserResponseDTO> users = new ArrayList<>(Arrays.asList(user1, user2));
+      when(userServiceMocked.getAllUsers("MA", 2)).thenReturn(UserPageResponseDTO
+          .builder()
+          .withUsers(users)
+          .withNextCursor("Mg")
+          .build());
+      mockMvc.perform(get("/users")
+              .param("cursor", "MA")
+              .param("limit", "2")
+              .contentType(MediaType.APPLICATION_JSON))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.users", hasSize(2)))
+          .andExpect(jsonPath("$.nextCursor", is("Mg")));
+    }
+
+    @Test
+    @DisplayName("Should return bad request when the cursor is invalid")
+    void shouldReturnBadRequestWhenTheCursorIsInvalid() throws Exception {
+      String exceptionMessage = "Cursor foo is not valid.";
+      when(userServiceMocked.getAllUsers("foo", null)).thenThrow(
+          new InvalidCursorException(exceptionMessage));
+      mockMvc.perform(get("/users").param("cursor", "foo").contentType(MediaType.APPLICATION_JSON))
+          .andExpect(status().isBadRequest())
+          .andExpect(
+              result -> assertTrue(result.getResolvedException() instanceof InvalidCursorException))
+          .andExpect(result -> assertEquals(exceptionMessage,
+              result.getResolvedException().getMessage()));
+    }
+
+    @Test
+    @DisplayName("Should stream all users as newline-delimited JSON")
+    void shouldStreamAllUsersAsNewlineDelimitedJson() throws Exception {
+      String export = mapper.writeValueAsString(user1) + "\n" + mapper.writeValueAsString(user2)
+          + "\n";
+      doAnswer(invocation -> {
+        invocation.getArgument(0, OutputStream.class)
+            .write(export.getBytes(StandardCharsets.UTF_8));
+        return 2L;
+      }).when(userServiceMocked).exportUsers(any(OutputStream.class), eq(UserExportFormat.NDJSON));
+
+      MvcResult result = mockMvc.perform(get("/users/export"))
+          .andExpect(request().asyncStarted())
+          .andReturn();
+      mockMvc.perform(asyncDispatch(result))
+          .andExpect(status().isOk())
+          .andExpect(content().contentType("application/x-ndjson"))
+          .andExpect(content().string(export));
+    }
+
+    @Test
+    @DisplayName("Should stream the user changes after the Last-Event-ID")
+    void shouldStreamTheUserChangesAfterTheLastEventId() throws Exception {
+      long start = userChangeFeed.getLatestSequence();
+      userChangeFeed.onUserChanged(new UserChangedEvent(UserChangeType.CREATED, List.of(1L)));
+      userChangeFeed.onUserChanged(new UserChangedEvent(UserChangeType.DELETED, List.of(2L)));
+
+      MvcResult result = mockMvc.perform(get("/users/changes?since=0")
+              .header("Last-Event-ID", Long.toString(start + 1)))
+          .andExpect(request().asyncStarted())
+          .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+          .andReturn();
+
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+      while (!result.getResponse().getContentAsString().contains("DELETED")
+          && System.nanoTime() < deadline) {
+        Thread.sleep(10);
+      }
+      String events = result.getResponse().getContentAsString();
+      assertTrue(events.startsWith("id:" + (start + 2) + "\nevent:user-change\ndata:{"), events);
+      assertTrue(events.contains("\"type\":\"DELETED\",\"userId\":2"), events);
     }
 
     @Test
@@ -100,6 +242,74 @@ public class UserControllerTest {
           .andExpect(jsonPath("$.firstname", is("Max")));
     }
 
+    @Test
+    @DisplayName("Should pass search query, field and cursor to the service")
+    void shouldPassSearchQueryFieldAndCursorToTheService() throws Exception {
+      when(userServiceMocked.searchUsers("Max", UserSearchField.LASTNAME, "abc", 5)).thenReturn(
+          UserPageResponseDTO.builder().withUsers(List.of(user1)).build());
+      mockMvc.perform(get("/users/search?q=Max&field=LASTNAME&cursor=abc&limit=5"))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.users", hasSize(1)))
+          .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Should return bad request for a too short search query")
+    void shouldReturnBadRequestForATooShortSearchQuery() throws Exception {
+      when(userServiceMocked.searchUsers("M", UserSearchField.ANY, null, null)).thenThrow(
+          new InvalidSearchQueryException("Search query must have at least 2 characters."));
+      mockMvc.perform(get("/users/search?q=M"))
+          .andExpect(status().isBadRequest())
+          .andExpect(jsonPath("$.errorType", is("InvalidSearchQueryException")));
+    }
+
+    @Test
+    @DisplayName("Should return the version of a user as ETag")
+    void shouldReturnTheVersionOfAUserAsETag() throws Exception {
+      UserResponseDTO versionedUser = UserResponseDTO
+          .builder()
+          .withId(1L)
+          .withFirstname("Max")
+          .withLastname("Mustermann")
+          .withEmail("max@mustermann.de")
+          .withVersion(3L)
+          .withLastModified(Instant.parse("2022-05-01T10:15:30Z"))
+          .build();
+      when(userServiceMocked.getUserById(1L)).thenReturn(versionedUser);
+      mockMvc.perform(get("/users/1").contentType(MediaType.APPLICATION_JSON))
+          .andExpect(status().isOk())
+          .andExpect(header().stringValues(HttpHeaders.ETAG, "\"3\""))
+          .andExpect(header().string(HttpHeaders.LAST_MODIFIED, "Sun, 01 May 2022 10:15:30 GMT"))
+          .andExpect(jsonPath("$.version").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Should return not modified without loading the user when the ETag matches")
+    void shouldReturnNotModifiedWithoutLoadingTheUserWhenTheETagMatches() throws Exception {
+      when(userServiceMocked.getUserVersion(1L)).thenReturn(userVersion(3L));
+      mockMvc.perform(get("/users/1").header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+          .andExpect(status().isNotModified())
+          .andExpect(header().string(HttpHeaders.ETAG, "\"3\""));
+      verify(userServiceMocked, never()).getUserById(1L);
+    }
+
+    @Test
+    @DisplayName("Should return the user when the ETag does not match")
+    void shouldReturnTheUserWhenTheETagDoesNotMatch() throws Exception {
+      UserResponseDTO versionedUser = UserResponseDTO
+          .builder()
+          .withId(1L)
+          .withFirstname("Max")
+          .withVersion(4L)
+          .build();
+      when(userServiceMocked.getUserVersion(1L)).thenReturn(userVersion(4L));
+      when(userServiceMocked.getUserById(1L)).thenReturn(versionedUser);
+      mockMvc.perform(get("/users/1").header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+          .andExpect(status().isOk())
+          .andExpect(header().stringValues(HttpHeaders.ETAG, "\"4\""))
+          .andExpect(jsonPath("$.firstname", is("Max")));
+    }
+
     @Test
     @DisplayName("Should return exception when no user found by id")
     void shouldReturnExceptionWhenNoUserFoundById() throws Exception {
@@ -117,6 +327,82 @@ public class UserControllerTest {
 
   }
 
+  @Nested
+  @DisplayName("PUT test requests to user endpoint")
+  class PutTestRequestsToUserEndpoint {
+
+    UserRequestDTO userRequest = UserRequestDTO.builder()
+        .withFirstname("Max")
+        .withLastname("Mustermann")
+        .withEmail("max@mustermann.de")
+        .build();
+
+    @Test
+    @DisplayName("Should update a user with the version given in If-Match")
+    void shouldUpdateAUserWithTheVersionGivenInIfMatch() throws Exception {
+      when(userServiceMocked.updateUser(1L, userRequest, 3L)).thenReturn(UserResponseDTO
+          .builder()
+          .withId(1L)
+          .withFirstname("Max")
+          .withVersion(4L)
+          .build());
+
+      mockMvc.perform(put("/users/1")
+              .header(HttpHeaders.IF_MATCH, "\"3\"")
+              .contentType(MediaType.APPLICATION_JSON)
+              .content(mapper.writeValueAsString(userRequest)))
+          .andExpect(status().isOk())
+          .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+    }
+
+    @Test
+    @DisplayName("Should return precondition failed when the version does not match")
+    void shouldReturnPreconditionFailedWhenTheVersionDoesNotMatch() throws Exception {
+      when(userServiceMocked.updateUser(1L, userRequest, 2L)).thenThrow(
+          new UserVersionMismatchException("User with id 1 was modified by another request."));
+
+      mockMvc.perform(put("/users/1")
+              .header(HttpHeaders.IF_MATCH, "\"2\"")
+              .contentType(MediaType.APPLICATION_JSON)
+              .content(mapper.writeValueAsString(userRequest)))
+          .andExpect(status().isPreconditionFailed())
+          .andExpect(result -> assertTrue(
+              result.getResolvedException() instanceof UserVersionMismatchException));
+    }
+
+  }
+
+  @Nested
+  @DisplayName("PATCH test requests to user endpoint")
+  class PatchTestRequestsToUserEndpoint {
+
+    @Test
+    @DisplayName("Should patch a user with the version given in If-Match")
+    void shouldPatchAUserWithTheVersionGivenInIfMatch() throws Exception {
+      UserPatchRequestDTO userPatchRequest = UserPatchRequestDTO.builder()
+          .withEmail("max@mustermann.de")
+          .build();
+
+      mockMvc.perform(patch("/users/1")
+              .header(HttpHeaders.IF_MATCH, "\"3\"")
+              .contentType(MediaType.APPLICATION_JSON)
+              .content(mapper.writeValueAsString(userPatchRequest)))
+          .andExpect(status().isNoContent());
+      verify(userServiceMocked).patchUser(1L, userPatchRequest, 3L);
+    }
+
+    @Test
+    @DisplayName("Should reject a patch with an invalid email")
+    void shouldRejectAPatchWithAnInvalidEmail() throws Exception {
+      mockMvc.perform(patch("/users/1")
+              .contentType(MediaType.APPLICATION_JSON)
+              .content("{\"email\": \"no-email\"}"))
+          .andExpect(status().isBadRequest());
+      verify(userServiceMocked, never()).patchUser(any(), any(), any());
+    }
+
+  }
+
   @Nested
   @DisplayName("POST test requests to user endpoint")
   class PostTestRequestsToUserEndpoint {
@@ -170,6 +456,110 @@ public class UserControllerTest {
               result.getResolvedException().getMessage()));
     }
 
+    @Test
+    @DisplayName("Should replay the original response for a retry with the same idempotency key")
+    void shouldReplayTheOriginalResponseForARetryWithTheSameIdempotencyKey() throws Exception {
+      when(userServiceMocked.createNewUser(userRequest)).thenReturn(userResponse);
+
+      for (String replayed : new String[] {"false", "true"}) {
+        mockMvc.perform(post("/users")
+                .header("Idempotency-Key", "signup-max")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(userRequest)))
+            .andExpect(status().isCreated())
+            .andExpect(header().string("Idempotent-Replayed", replayed))
+            .andExpect(jsonPath("$.id", is(1)));
+      }
+
+      verify(userServiceMocked, times(1)).createNewUser(userRequest);
+    }
+
+    @Test
+    @DisplayName("Should reject an idempotency key reused for a different user")
+    void shouldRejectAnIdempotencyKeyReusedForADifferentUser() throws Exception {
+      when(userServiceMocked.createNewUser(any())).thenReturn(userResponse);
+      UserRequestDTO otherRequest = UserRequestDTO.builder()
+          .withFirstname("Erika")
+          .withLastname("Mustermann")
+          .withEmail("erika@mustermann.de")
+          .build();
+
+      mockMvc.perform(post("/users")
+              .header("Idempotency-Key", "signup-erika")
+              .contentType(MediaType.APPLICATION_JSON)
+              .content(mapper.writeValueAsString(userRequest)))
+          .andExpect(status().isCreated());
+      mockMvc.perform(post("/users")
+              .header("Idempotency-Key", "signup-erika")
+              .contentType(MediaType.APPLICATION_JSON)
+              .content(mapper.writeValueAsString(otherRequest)))
+          .andExpect(status().isUnprocessableEntity())
+          .andExpect(result -> assertTrue(
+              result.getResolvedException() instanceof IdempotencyKeyMismatchException));
+      verify(userServiceMocked, times(1)).createNewUser(any());
+    }
+
+    @Test
+    @DisplayName("Should create new users in bulk and report every item")
+    void shouldCreateNewUsersInBulkAndReportEveryItem() throws Exception {
+      List<UserRequestDTO> userRequests = List.of(userRequest, userRequest);
+      when(userServiceMocked.createNewUsers(userRequests)).thenReturn(BulkUserResponseDTO
+          .builder()
+          .withCreated(1)
+          .withConflicts(1)
+          .withResults(List.of(
+              BulkUserItemResponseDTO.builder()
+                  .withIndex(0)
+                  .withStatus(BulkUserItemStatus.CREATED)
+                  .withUser(userResponse)
+                  .build(),
+              BulkUserItemResponseDTO.builder()
+                  .withIndex(1)
+                  .withStatus(BulkUserItemStatus.CONFLICT)
+                  .withMessage("User with email max@mustermann.de already exist.")
+                  .build()))
+          .build());
+
+      mockMvc.perform(post("/users/bulk")
+              .contentType(MediaType.APPLICATION_JSON)
+              .accept(MediaType.APPLICATION_JSON)
+              .content(mapper.writeValueAsString(userRequests)))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.created", is(1)))
+          .andExpect(jsonPath("$.conflicts", is(1)))
+          .andExpect(jsonPath("$.results", hasSize(2)))
+          .andExpect(jsonPath("$.results[0].status", is("CREATED")))
+          .andExpect(jsonPath("$.results[0].user.id", is(1)))
+          .andExpect(jsonPath("$.results[1].status", is("CONFLICT")));
+    }
+
+    @Test
+    @DisplayName("Should reject a bulk delete that selects by ids and by filter")
+    void shouldRejectABulkDeleteThatSelectsByIdsAndByFilter() throws Exception {
+      mockMvc.perform(post("/users/bulk/delete")
+              .contentType(MediaType.APPLICATION_JSON)
+              .content("{\"ids\": [1, 2], \"lastModifiedBefore\": \"2020-01-01T00:00:00Z\"}"))
+          .andExpect(status().isBadRequest());
+      verify(userServiceMocked, never()).deleteUsers(any());
+    }
+
+  }
+
+  private static UserVersion userVersion(Long version) {
+    return new UserVersion() {
+
+      @Override
+      public Long getVersion() {
+        return version;
+      }
+
+      @Override
+      public Instant getLastModified() {
+        return null;
+      }
+
+    };
   }
 
 }
@@ -0,0 +1,74 @@
+package de.amehlen.obms.unit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.amehlen.obms.dto.response.UserBatchResponseDTO;
+import de.amehlen.obms.dto.response.UserPageResponseDTO;
+import de.amehlen.obms.dto.response.UserResponseDTO;
+import de.amehlen.obms.service.UserJsonCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+public class UserJsonCacheTest {
+
+  private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final UserJsonCache userJsonCache = new UserJsonCache(objectMapper, meterRegistry, 100);
+
+  @Test
+  @DisplayName("Should reuse the encoding of a user until its version changes")
+  void shouldReuseTheEncodingOfAUserUntilItsVersionChanges() throws Exception {
+    byte[] first = userJsonCache.user(user(1L, "Max", 0L));
+
+    assertSame(first, userJsonCache.user(user(1L, "Max", 0L)));
+    byte[] updated = userJsonCache.user(user(1L, "Erika", 1L));
+    assertArrayEquals(objectMapper.writeValueAsBytes(user(1L, "Erika", 1L)), updated);
+    // a stale read gets its own encoding but keeps the newer one cached
+    assertArrayEquals(first, userJsonCache.user(user(1L, "Max", 0L)));
+    assertSame(updated, userJsonCache.user(user(1L, "Erika", 1L)));
+    assertEquals(2, meterRegistry.get("obms.users.json").tag("result", "cached").counter().count());
+
+    userJsonCache.evict(List.of(1L));
+
+    assertEquals(0, meterRegistry.get("obms.users.json.cached-users").gauge().value());
+  }
+
+  @Test
+  @DisplayName("Should assemble pages and batches like Jackson serializes them")
+  void shouldAssemblePagesAndBatchesLikeJacksonSerializesThem() throws Exception {
+    List<UserResponseDTO> users = List.of(user(1L, "Max", 0L), user(2L, "Erika", 3L));
+    UserPageResponseDTO page = UserPageResponseDTO.builder()
+        .withUsers(users)
+        .withNextCursor("Mg\"")
+        .build();
+    UserPageResponseDTO lastPage = UserPageResponseDTO.builder()
+        .withUsers(List.of())
+        .build();
+    UserBatchResponseDTO batch = UserBatchResponseDTO.builder()
+        .withUsers(users)
+        .withMissingIds(List.of(3L, 4L))
+        .build();
+
+    assertEquals(objectMapper.writeValueAsString(page), new String(userJsonCache.page(page)));
+    assertEquals(objectMapper.writeValueAsString(lastPage),
+        new String(userJsonCache.page(lastPage)));
+    assertEquals(objectMapper.writeValueAsString(batch), new String(userJsonCache.batch(batch)));
+  }
+
+  private static UserResponseDTO user(Long id, String firstname, Long version) {
+    return UserResponseDTO.builder()
+        .withId(id)
+        .withFirstname(firstname)
+        .withLastname("Mustermann")
+        .withEmail(firstname.toLowerCase() + "@mustermann.de")
+        .withVersion(version)
+        .build();
+  }
+
+}
@@ -0,0 +1,53 @@
+package de.amehlen.obms.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import de.amehlen.obms.dto.request.UserRequestDTO;
+import de.amehlen.obms.dto.response.UserResponseDTO;
+import de.amehlen.obms.mapper.UserMapper;
+import de.amehlen.obms.model.User;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class UserMapperTest {
+
+  private final UserMapper userMapper = new UserMapper();
+
+  @Test
+  @DisplayName("Should map a user to a response")
+  void shouldMapAUserToAResponse() {
+    User user = new User();
+    user.setId(1L);
+    user.setFirstname("Max");
+    user.setLastname("Mustermann");
+    user.setEmail("max@mustermann.de");
+
+    UserResponseDTO userResponseDTO = userMapper.toResponseDTO(user);
+
+    assertEquals(UserResponseDTO.builder()
+        .withId(1L)
+        .withFirstname("Max")
+        .withLastname("Mustermann")
+        .withEmail("max@mustermann.de")
+        .build(), userResponseDTO);
+  }
+
+  @Test
+  @DisplayName("Should map a request to a new user without id")
+  void shouldMapARequestToANewUserWithoutId() {
+    UserRequestDTO userRequestDTO = UserRequestDTO.builder()
+        .withFirstname("Max")
+        .withLastname("Mustermann")
+        .withEmail("max@mustermann.de")
+        .build();
+
+    User user = userMapper.toEntity(userRequestDTO);
+
+    assertNull(user.getId());
+    assertEquals("Max", user.getFirstname());
+    assertEquals("Mustermann", user.getLastname());
+    assertEquals("max@mustermann.de", user.getEmail());
+  }
+
+}